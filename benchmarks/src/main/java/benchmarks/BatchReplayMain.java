@@ -0,0 +1,86 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.batch.BatchReplayer;
+import chess.batch.GameRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how batch replay scales: for each thread count, how many games a second
+ * {@link BatchReplayer} checks out of a fixed set of random games written in SAN.
+ * <p>
+ * Usage: build with {@code mvn -pl benchmarks -am package -DskipTests}, then
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.BatchReplayMain [games] [threads...]}
+ */
+public class BatchReplayMain {
+
+    private static final int PLIES = 80;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int[] threadCounts = {1, 2, 4, 8, 16};
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.printf("%d hardware threads, %,d games of up to %d plies%n",
+                Runtime.getRuntime().availableProcessors(), count, PLIES);
+        List<GameRecord> games = randomGames(count, 2023);
+
+        //one untimed pass so the first thread count isn't measured before the JIT has compiled the replay
+        time(1, games.subList(0, Math.min(count, 2000)));
+
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            double seconds = time(threads, games) / 1e9;
+            if (baseline == 0) {
+                baseline = seconds;
+            }
+            System.out.printf("%2d threads: %8.2f s %,12.0f games/s  speedup %.2fx%n",
+                    threads, seconds, count / seconds, baseline / seconds);
+        }
+    }
+
+    private static long time(int threads, List<GameRecord> games) {
+        try (BatchReplayer replayer = new BatchReplayer(threads)) {
+            long start = System.nanoTime();
+            replayer.replayAll(games.iterator(), result -> {
+                if (!result.isValid()) {
+                    throw new IllegalStateException("Game " + result.id() + " failed: " + result.error());
+                }
+            });
+            return System.nanoTime() - start;
+        }
+    }
+
+    //random legal games, so every one replays to the end
+    private static List<GameRecord> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        List<GameRecord> games = new ArrayList<>(count);
+        MoveList moveList = new MoveList();
+        for (int i = 0; i < count; i++) {
+            ChessGame game = new ChessGame();
+            List<String> moves = new ArrayList<>(PLIES);
+            for (int ply = 0; ply < PLIES; ply++) {
+                moveList.clear();
+                game.generateMoves(moveList);
+                if (moveList.isEmpty()) {
+                    break;
+                }
+                ChessMove move = Move.toChessMove(moveList.get(random.nextInt(moveList.size())));
+                moves.add(move.toSan(game));
+                game.makeMoveUnchecked(move);
+            }
+            games.add(new GameRecord(String.valueOf(i), null, moves));
+        }
+        return games;
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ns/op for the rules engine's public entry points on the standard positions.
+ * <p>
+ * Build with {@code mvn -pl benchmarks -am package -DskipTests} and run
+ * {@code java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({"START", "KIWIPETE", "MIDDLEGAME", "ENDGAME"})
+    private StandardPosition position;
+
+    private ChessGame game;
+    private ChessBoard startingBoard;
+    private ChessPosition[] movers;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+        startingBoard = new ChessBoard(game.getBoard());
+        List<ChessPosition> ownPieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = startingBoard.getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    ownPieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        movers = ownPieces.toArray(new ChessPosition[0]);
+        firstMove = game.allValidMoves(game.getTeamTurn()).iterator().next();
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (ChessPosition from : movers) {
+            blackhole.consume(board.getPiece(from).pieceMoves(board, from));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition from : movers) {
+            blackhole.consume(game.validMoves(from));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    /**
+     * Validated makeMove. Each call starts from a fresh copy of the position, so the
+     * three array copies of the board are included in the time.
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(new ChessBoard(startingBoard));
+        copy.setTeamTurn(game.getTeamTurn());
+        copy.makeMove(firstMove);
+        return copy;
+    }
+
+    @Benchmark
+    public void makeUnmakeMove() {
+        game.unmakeMove(game.makeMoveUnchecked(firstMove));
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to search a position to a fixed depth with Lazy SMP at each thread count. Every
+ * invocation starts with an empty transposition table, so it measures a search from scratch;
+ * dividing the 1-thread time by another thread count's time gives its speedup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelSearchBenchmark {
+
+    @Param({"KIWIPETE", "MIDDLEGAME"})
+    private StandardPosition position;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"8"})
+    private int depth;
+
+    private ChessGame game;
+    private ParallelSearch search;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        game = position.game();
+        search = new ParallelSearch(threads, 64);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult searchToDepth() {
+        return search.search(game, SearchLimits.ofDepth(depth));
+    }
+}
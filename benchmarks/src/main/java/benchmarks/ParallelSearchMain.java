@@ -0,0 +1,60 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+
+/**
+ * Measures how Lazy SMP search scales: for each thread count, the time to search the standard
+ * positions to a fixed depth with a fresh transposition table, and the speedup over one thread.
+ * <p>
+ * Usage: build with {@code mvn -pl benchmarks -am package -DskipTests}, then
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.ParallelSearchMain [depth] [threads...]}
+ */
+public class ParallelSearchMain {
+
+    private static final int TABLE_MEGABYTES = 64;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int[] threadCounts = {1, 2, 4, 8, 16};
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.printf("%d hardware threads, depth %d%n", Runtime.getRuntime().availableProcessors(), depth);
+
+        //one untimed pass so the first thread count isn't measured before the JIT has compiled the search
+        timeToDepth(1, Math.min(depth, 6));
+
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            long[] totals = timeToDepth(threads, depth);
+            double seconds = totals[0] / 1e9;
+            if (baseline == 0) {
+                baseline = seconds;
+            }
+            System.out.printf("%2d threads: %8.2f s %,14.0f nodes/s  speedup %.2fx%n",
+                    threads, seconds, totals[1] / seconds, baseline / seconds);
+        }
+    }
+
+    //total nanoseconds and nodes to search every standard position to the depth
+    private static long[] timeToDepth(int threads, int depth) {
+        long nanos = 0;
+        long nodes = 0;
+        for (StandardPosition position : StandardPosition.values()) {
+            try (ParallelSearch search = new ParallelSearch(threads, TABLE_MEGABYTES)) {
+                ChessGame game = position.game();
+                long start = System.nanoTime();
+                SearchResult result = search.search(game, SearchLimits.ofDepth(depth));
+                nanos += System.nanoTime() - start;
+                nodes += result.nodes();
+            }
+        }
+        return new long[]{nanos, nodes};
+    }
+}
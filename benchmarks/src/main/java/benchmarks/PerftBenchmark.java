@@ -0,0 +1,47 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for a perft to a fixed depth; divide the node count PerftMain prints by this to get nodes/s
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param({"START", "KIWIPETE", "MIDDLEGAME", "ENDGAME"})
+    private StandardPosition position;
+
+    @Param({"3"})
+    private int depth;
+
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = position.game();
+    }
+
+    @Benchmark
+    public long perft() {
+        return Perft.perft(game, depth);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Perft;
+
+/**
+ * Runs perft on every standard position to every depth with a known count, checks the counts,
+ * and prints the node rate. Exits with status 1 if any count is wrong.
+ * <p>
+ * Usage: build with {@code mvn -pl benchmarks -am package -DskipTests}, then
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.PerftMain [maxDepth]}
+ */
+public class PerftMain {
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        for (StandardPosition position : StandardPosition.values()) {
+            long[] expected = position.perftCounts();
+            for (int depth = 1; depth <= Math.min(expected.length, maxDepth); depth++) {
+                ChessGame game = position.game();
+                long start = System.nanoTime();
+                long nodes = Perft.perft(game, depth);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                boolean passed = nodes == expected[depth - 1];
+                allPassed &= passed;
+                System.out.printf("%-10s depth %d: %,12d nodes %8.1f ms %,14.0f nodes/s %s%n",
+                        position, depth, nodes, nanos / 1e6, nodes * 1e9 / Math.max(nanos, 1),
+                        passed ? "ok" : "EXPECTED " + expected[depth - 1]);
+            }
+        }
+
+        System.out.printf("total: %,d nodes, %,.0f nodes/s%n", totalNodes, totalNodes * 1e9 / Math.max(totalNanos, 1));
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
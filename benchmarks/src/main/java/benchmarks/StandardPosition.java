@@ -0,0 +1,43 @@
+package benchmarks;
+
+import chess.ChessGame;
+
+/**
+ * The fixed positions every benchmark and perft run uses, with their published perft node counts
+ * (index 0 is depth 1).
+ */
+public enum StandardPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8902, 197281, 4865609),
+    //"Kiwipete" from the Chess Programming Wiki perft suite, full of castling and promotions
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2039, 97862, 4085603),
+    //"position 6" from the Chess Programming Wiki perft suite
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46, 2079, 89890, 3894594),
+    //"position 3" from the Chess Programming Wiki perft suite
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2812, 43238, 674624, 11030083);
+
+    private final String fen;
+    private final long[] perftCounts;
+
+    StandardPosition(String fen, long... perftCounts) {
+        this.fen = fen;
+        this.perftCounts = perftCounts;
+    }
+
+    /**
+     * @return a new game set up at this position
+     */
+    public ChessGame game() {
+        return ChessGame.fromFen(fen);
+    }
+
+    /**
+     * @return the known leaf count at each depth, starting from depth 1
+     */
+    public long[] perftCounts() {
+        return perftCounts.clone();
+    }
+}
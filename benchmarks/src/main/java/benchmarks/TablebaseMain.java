@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.tablebase.Material;
+import chess.tablebase.TablebaseGenerator;
+import chess.tablebase.TablebaseResult;
+import chess.tablebase.Tablebases;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Times solving endgame tablebases: for each material, how long a {@link TablebaseGenerator}
+ * takes to solve and write its table (and the smaller tables it needs) on the given number of
+ * threads, then probes a known position from the written files.
+ * <p>
+ * Usage: build with {@code mvn -pl benchmarks -am package -DskipTests}, then
+ * {@code java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.TablebaseMain [threads] [directory] [material...]}
+ */
+public class TablebaseMain {
+
+    public static void main(String[] args) throws IOException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("tablebases");
+        String[] materials = args.length > 2
+                ? Arrays.copyOfRange(args, 2, args.length)
+                : new String[]{"KQK", "KRK", "KPK", "KBNK"};
+        System.out.printf("%d hardware threads, solving on %d into %s%n",
+                Runtime.getRuntime().availableProcessors(), threads, directory);
+
+        //each material gets its own generator, so the smaller tables it needs are solved in its time too
+        for (String name : materials) {
+            Material material = Material.of(name);
+            try (TablebaseGenerator generator = new TablebaseGenerator(threads)) {
+                long start = System.nanoTime();
+                generator.write(material, directory);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%-5s %,12d entries %8.2f s%n", name, material.tableSize(), seconds);
+            }
+        }
+
+        Tablebases tablebases = Tablebases.open(directory);
+        String fen = "8/8/8/4k3/8/8/8/R3K3 w - - 0 1";
+        TablebaseResult result = tablebases.probe(ChessGame.fromFen(fen));
+        System.out.printf("%s: %s%n", fen, result);
+    }
+}
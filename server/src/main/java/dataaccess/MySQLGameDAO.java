@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.codec.GameCodec;
 import com.google.gson.Gson;
 import model.GameData;
 
@@ -9,9 +10,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 public class MySQLGameDAO implements GameDAO {
+    //only for reading rows saved as JSON before games were stored with GameCodec; ChessGame's
+    //Gson adapter still reads the original layout of those rows, squares and team to move
     private Gson gson = new Gson();
     public MySQLGameDAO() throws DataAccessException {
         createGameTable();
@@ -35,7 +39,7 @@ public class MySQLGameDAO implements GameDAO {
             statement.setString(1, game.whiteUsername());
             statement.setString(2, game.blackUsername());
             statement.setString(3, game.gameName());
-            statement.setString(4, gson.toJson(game.game()));
+            statement.setString(4, encodeGame(game.game()));
             statement.executeUpdate();
 
             try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
@@ -60,7 +64,7 @@ public class MySQLGameDAO implements GameDAO {
             statement.setInt(1, gameID);
             try (ResultSet rs = statement.executeQuery()) {
                 if (rs.next()) {
-                    ChessGame theGame = gson.fromJson(rs.getString("gameState"), ChessGame.class);
+                    ChessGame theGame = decodeGame(rs.getString("gameState"));
                     return new GameData(
                             rs.getInt("gameID"),
                             rs.getString("whiteUsername"),
@@ -84,7 +88,7 @@ public class MySQLGameDAO implements GameDAO {
              ResultSet rs = statement.executeQuery()) {
 
             while (rs.next()) {
-                ChessGame theGame = gson.fromJson(rs.getString("gameState"), ChessGame.class);
+                ChessGame theGame = decodeGame(rs.getString("gameState"));
 
                 games.add(new GameData(
                         rs.getInt("gameID"),
@@ -109,7 +113,7 @@ public class MySQLGameDAO implements GameDAO {
             statement.setString(1, game.whiteUsername());
             statement.setString(2, game.blackUsername());
             statement.setString(3, game.gameName());
-            statement.setString(4, gson.toJson(game.game()));
+            statement.setString(4, encodeGame(game.game()));
             statement.setInt(5, game.gameID());
             statement.executeUpdate();
 
@@ -118,6 +122,21 @@ public class MySQLGameDAO implements GameDAO {
         }
     }
 
+    //games are stored as Base64 GameCodec bytes, which is a small fraction of the size of the JSON
+    private String encodeGame(ChessGame game) {
+        return game == null ? null : Base64.getEncoder().encodeToString(GameCodec.encode(game));
+    }
+
+    private ChessGame decodeGame(String gameState) {
+        if (gameState == null) {
+            return null;
+        }
+        if (gameState.startsWith("{") || gameState.equals("null")) {
+            return gson.fromJson(gameState, ChessGame.class);
+        }
+        return GameCodec.decode(Base64.getDecoder().decode(gameState));
+    }
+
     private void createGameTable() throws DataAccessException {
         var createTableSQL = "CREATE TABLE IF NOT EXISTS game (" +
                 "gameID INT PRIMARY KEY AUTO_INCREMENT, " +
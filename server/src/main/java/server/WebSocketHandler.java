@@ -68,20 +68,15 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         );
 
         ctx.send(gson.toJson(Map.of("serverMessageType","LOAD_GAME",
-                "game",gameData.game())));
+                "game",gameData.game(),
+                "evaluation",gameData.game().evaluate())));
     }
-    private String numToLetter(int num) {
-        return switch (num) {
-            case 1 -> "a";
-            case 2 -> "b";
-            case 3 -> "c";
-            case 4 -> "d";
-            case 5 -> "e";
-            case 6 -> "f";
-            case 7 -> "g";
-            case 8 -> "h";
-            default -> "?";
-        };
+    private static ChessMove parseMove(String notation, ChessGame game) throws InvalidMoveException {
+        try {
+            return ChessMove.fromNotation(notation, game);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMoveException(e.getMessage());
+        }
     }
 
     void makeMove(UserGameCommand command,WsMessageContext ctx) throws DataAccessException, IOException, InvalidMoveException {
@@ -120,18 +115,31 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
             return;
         }
 
-        ChessMove move = new ChessMove(
-                command.getMove().getStartPosition(),
-                command.getMove().getEndPosition(),
-                command.getMove().getPromotionPiece()
-        );
+        ChessMove move;
+        if (command.getMove() == null && command.getNotation() != null) {
+            move = parseMove(command.getNotation(), gameData.game());
+        } else {
+            move = new ChessMove(
+                    command.getMove().getStartPosition(),
+                    command.getMove().getEndPosition(),
+                    command.getMove().getPromotionPiece()
+            );
+        }
 
+        //SAN describes a move from the position it is played in, so it has to be written first
+        String san;
+        try {
+            san = move.toSan(gameData.game());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMoveException(e.getMessage());
+        }
         gameData.game().makeMove(move);
         gameDAO.updateGame(gameData);
 
         var loadGameMsg = gson.toJson(Map.of(
                 "serverMessageType", "LOAD_GAME",
-                "game", gameData.game()
+                "game", gameData.game(),
+                "evaluation", gameData.game().evaluate()
         ));
 
         for (var session : connections.getGameSessions(gameID)) {
@@ -139,49 +147,57 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
                 session.getRemote().sendString(loadGameMsg);
             }
         }
-        String from =
-                numToLetter(move.getStartPosition().getColumn())
-                        + move.getStartPosition().getRow();
-
-        String to =
-                numToLetter(move.getEndPosition().getColumn())
-                        + move.getEndPosition().getRow();
-
         connections.broadcast(gameID, ctx.session,
                 new Notification("NOTIFICATION",
-                        username + " moved from " + from + " to " + to
+                        username + " played " + san
                 )
         );
 
 
-        if (gameData.game().isInCheckmate(ChessGame.TeamColor.WHITE)) {
-            resignedPlayers.add(gameKey);
-            connections.broadcast(gameID, null,
-                    new Notification("NOTIFICATION",
-                            gameData.whiteUsername() + " is in checkmate. " +
-                                    gameData.blackUsername() + " wins"));
-        }else{
-            if (gameData.game().isInCheck(ChessGame.TeamColor.WHITE)) {
+        //only the team whose turn it is now can be in check after a valid move
+        String toMove;
+        String justMoved;
+        if (gameData.game().getTeamTurn() == ChessGame.TeamColor.WHITE) {
+            toMove = gameData.whiteUsername();
+            justMoved = gameData.blackUsername();
+        } else {
+            toMove = gameData.blackUsername();
+            justMoved = gameData.whiteUsername();
+        }
+        ChessGame.GameStatus status = gameData.game().evaluateStatus();
+        switch (status) {
+            case CHECKMATE -> {
+                resignedPlayers.add(gameKey);
                 connections.broadcast(gameID, null,
                         new Notification("NOTIFICATION",
-                                gameData.whiteUsername() + " is in check"));
+                                toMove + " is in checkmate. " + justMoved + " wins"));
             }
-        }
-
-        if (gameData.game().isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            resignedPlayers.add(gameKey);
-            connections.broadcast(gameID, null,
-                    new Notification("NOTIFICATION",
-                            gameData.blackUsername() + " is in checkmate. " +
-                                    gameData.whiteUsername() + " wins"));
-        }else{
-            if (gameData.game().isInCheck(ChessGame.TeamColor.BLACK)) {
+            case STALEMATE -> {
+                resignedPlayers.add(gameKey);
                 connections.broadcast(gameID, null,
                         new Notification("NOTIFICATION",
-                                gameData.blackUsername() + " is in check"));
+                                toMove + " is in stalemate. The game's a draw"));
+            }
+            case THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL -> {
+                resignedPlayers.add(gameKey);
+                connections.broadcast(gameID, null,
+                        new Notification("NOTIFICATION", "The game's a draw by " + drawReason(status)));
+            }
+            case CHECK -> connections.broadcast(gameID, null,
+                    new Notification("NOTIFICATION", toMove + " is in check"));
+            default -> {
             }
         }
     }
+
+    private static String drawReason(ChessGame.GameStatus status) {
+        return switch (status) {
+            case THREEFOLD_REPETITION -> "threefold repetition";
+            case FIFTY_MOVE_RULE -> "the fifty-move rule";
+            default -> "insufficient material";
+        };
+    }
+
     void leave(UserGameCommand command,WsMessageContext ctx) throws DataAccessException, IOException, InvalidMoveException{
         System.out.println("Leave");
 
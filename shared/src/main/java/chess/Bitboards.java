@@ -0,0 +1,267 @@
+package chess;
+
+/**
+ * Square numbering, masks and attack tables for the bitboard board representation.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so a square is
+ * {@code (row - 1) * 8 + (column - 1)} and bit {@code n} of a bitboard is square {@code n}.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_4 = RANK_1 << 24;
+    public static final long RANK_5 = RANK_1 << 32;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    //indexed by [team ordinal][square]
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final int[][] KNIGHT_OFFSETS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {-1, 2}, {1, -2}, {-1, -2}};
+    private static final int[][] KING_OFFSETS = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    /*
+     * Magic bitboard tables for sliding pieces. For each square, the occupied squares that can
+     * block a slider (its "relevant" mask) are multiplied by a magic number and shifted so every
+     * blocker arrangement maps to its own slot of a shared attack table. A slider's attacks are then
+     * one and-multiply-shift-lookup instead of a walk along each ray.
+     *
+     * The magic numbers were found offline by trying sparse random numbers until one mapped every
+     * blocker subset of the square without a harmful collision.
+     */
+    private static final long[] ROOK_MAGICS = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+            0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+            0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+            0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+            0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+            0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+            0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+            0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+            0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+            0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+            0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+            0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+            0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+            0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+            0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+            0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+            0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    //squares strictly between two squares that share a row, column or diagonal, else empty
+    private static final long[][] BETWEEN = new long[64][64];
+    //the whole row, column or diagonal through two aligned squares, else empty
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = offsetMask(sq, KNIGHT_OFFSETS);
+            KING_ATTACKS[sq] = offsetMask(sq, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][sq] = offsetMask(sq, new int[][]{{1, 1}, {1, -1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][sq] = offsetMask(sq, new int[][]{{-1, 1}, {-1, -1}});
+        }
+        ROOK_TABLE = buildMagicTable(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_TABLE = buildMagicTable(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long bBit = bit(b);
+                if ((rookAttacks(a, 0L) & bBit) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, bBit) & rookAttacks(b, bit(a));
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | bit(a) | bBit;
+                } else if ((bishopAttacks(a, 0L) & bBit) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, bBit) & bishopAttacks(b, bit(a));
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | bit(a) | bBit;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    private static long offsetMask(int sq, int[][] offsets) {
+        long mask = 0L;
+        for (int[] offset : offsets) {
+            int row = row(sq) + offset[0];
+            int col = column(sq) + offset[1];
+            if (onBoard(row, col)) {
+                mask |= bit(square(row, col));
+            }
+        }
+        return mask;
+    }
+
+    //walks each direction until it leaves the board or hits an occupied square (which is included)
+    private static long rayAttacks(int sq, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = row(sq) + direction[0];
+            int col = column(sq) + direction[1];
+            while (onBoard(row, col)) {
+                long b = bit(square(row, col));
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    //squares along the rays that can block a slider, leaving out the last square of each ray
+    private static long relevantMask(int sq, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = row(sq) + direction[0];
+            int col = column(sq) + direction[1];
+            while (onBoard(row + direction[0], col + direction[1])) {
+                mask |= bit(square(row, col));
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long[] buildMagicTable(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            masks[sq] = relevantMask(sq, directions);
+            shifts[sq] = 64 - Long.bitCount(masks[sq]);
+            offsets[sq] = size;
+            size += 1 << Long.bitCount(masks[sq]);
+        }
+        long[] table = new long[size];
+        for (int sq = 0; sq < 64; sq++) {
+            //enumerate every subset of the relevant mask and store its attacks at the magic index
+            long subset = 0L;
+            do {
+                int index = offsets[sq] + (int) ((subset * magics[sq]) >>> shifts[sq]);
+                long attacks = rayAttacks(sq, subset, directions);
+                if (table[index] != 0 && table[index] != attacks) {
+                    throw new IllegalStateException("Bad magic number for square " + sq);
+                }
+                table[index] = attacks;
+                subset = (subset - masks[sq]) & masks[sq];
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    /**
+     * @return the square index for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-based row of a square index
+     */
+    public static int row(int sq) {
+        return (sq >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of a square index
+     */
+    public static int column(int sq) {
+        return (sq & 7) + 1;
+    }
+
+    public static long bit(int sq) {
+        return 1L << sq;
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    /**
+     * @return the squares a pawn of the given team standing on sq attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int sq) {
+        return PAWN_ATTACKS[color.ordinal()][sq];
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq]);
+        return ROOK_TABLE[ROOK_OFFSETS[sq] + index];
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[sq] + index];
+    }
+
+    /**
+     * @return the squares strictly between a and b if they share a row, column or diagonal, otherwise 0
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the full row, column or diagonal running through a and b, or 0 if they aren't aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+}
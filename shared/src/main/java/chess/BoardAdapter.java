@@ -0,0 +1,113 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gives a board the same JSON as it always had: {@code {"squares": [...]}}, eight rows of eight
+ * squares from row 1, each square null or a piece as {@code {"pieceColor": "WHITE", "type": "ROOK"}}.
+ * <p>
+ * The bitboards, key and evaluation sums are never written. Reading puts each piece on the
+ * board with addPiece, so they always match the pieces, whatever the JSON came from.
+ */
+final class BoardAdapter extends TypeAdapter<ChessBoard> {
+
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject().name("squares").beginArray();
+        for (int row = 1; row <= 8; row++) {
+            out.beginArray();
+            for (int col = 1; col <= 8; col++) {
+                int piece = board.pieceAt(Bitboards.square(row, col));
+                if (piece == ChessBoard.EMPTY) {
+                    out.nullValue();
+                } else {
+                    out.beginObject()
+                            .name("pieceColor").value(TEAMS[ChessPiece.colorOf(piece)].name())
+                            .name("type").value(ChessPiece.typeOf(piece).name())
+                            .endObject();
+                }
+            }
+            out.endArray();
+        }
+        out.endArray().endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessBoard board = new ChessBoard();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("squares")) {
+                readSquares(in, board);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return board;
+    }
+
+    private static void readSquares(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        for (int row = 1; in.hasNext(); row++) {
+            in.beginArray();
+            for (int col = 1; in.hasNext(); col++) {
+                ChessPiece piece = readPiece(in);
+                if (row > 8 || col > 8) {
+                    throw new JsonParseException("Board has a square past row 8 or column 8");
+                }
+                board.addPiece(ChessPosition.of(row, col), piece);
+            }
+            in.endArray();
+        }
+        in.endArray();
+    }
+
+    private static ChessPiece readPiece(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieceColor" -> color = valueOf(TEAMS, in.nextString());
+                case "type" -> type = valueOf(TYPES, in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new JsonParseException("Board has a piece without a color or type");
+        }
+        return ChessPiece.of(color, type);
+    }
+
+    private static <E extends Enum<E>> E valueOf(E[] values, String name) {
+        for (E value : values) {
+            if (value.name().equals(name)) {
+                return value;
+            }
+        }
+        throw new JsonParseException("Board has an unknown piece color or type: " + name);
+    }
+}
@@ -0,0 +1,86 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights as four bits, and the squares the king and rook use when castling.
+ * <p>
+ * A right is lost for good once its king or rook leaves its starting square or the rook is
+ * captured there, so after any move the rights are the old rights ANDed with a mask for the
+ * move's start and end squares. Nothing has to look back through the game.
+ */
+final class Castling {
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL = 15;
+
+    static final int WHITE_KING_START = 4;
+    static final int BLACK_KING_START = 60;
+
+    //the rights that survive a move touching each square
+    private static final int[] KEPT = new int[64];
+
+    static {
+        Arrays.fill(KEPT, ALL);
+        KEPT[0] = ALL & ~WHITE_QUEENSIDE;
+        KEPT[7] = ALL & ~WHITE_KINGSIDE;
+        KEPT[WHITE_KING_START] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEPT[56] = ALL & ~BLACK_QUEENSIDE;
+        KEPT[63] = ALL & ~BLACK_KINGSIDE;
+        KEPT[BLACK_KING_START] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    private Castling() {
+    }
+
+    //the rights left after a piece moves from one square to another
+    static int update(int rights, int from, int to) {
+        return rights & KEPT[from] & KEPT[to];
+    }
+
+    static int kingside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+    }
+
+    static int queenside(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+    }
+
+    //where the rook starts for a castling move that puts the king on kingTo
+    static int rookFrom(int kingTo) {
+        return Bitboards.column(kingTo) == 7 ? kingTo + 1 : kingTo - 2;
+    }
+
+    //where the rook ends up for a castling move that puts the king on kingTo
+    static int rookTo(int kingTo) {
+        return Bitboards.column(kingTo) == 7 ? kingTo - 1 : kingTo + 1;
+    }
+
+    /**
+     * Works out the rights a board allows when nothing is known about how it was reached:
+     * a right is kept when the king and that rook are both on their starting squares
+     *
+     * @param board the position
+     * @return the castling right bits
+     */
+    static int fromPlacement(ChessBoard board) {
+        int rights = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int kingStart = color == ChessGame.TeamColor.WHITE ? WHITE_KING_START : BLACK_KING_START;
+            if (board.pieceAt(kingStart) != ChessPiece.index(color, ChessPiece.PieceType.KING)) {
+                continue;
+            }
+            int rook = ChessPiece.index(color, ChessPiece.PieceType.ROOK);
+            if (board.pieceAt(kingStart + 3) == rook) {
+                rights |= kingside(color);
+            }
+            if (board.pieceAt(kingStart - 4) == rook) {
+                rights |= queenside(color);
+            }
+        }
+        return rights;
+    }
+}
@@ -1,35 +1,54 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * None of the fields are serialized directly: Gson goes through {@link BoardAdapter}, which
+ * writes only where the pieces stand and rebuilds everything else when a board is read.
  */
+@JsonAdapter(BoardAdapter.class)
 public class ChessBoard {
 
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    static final int EMPTY = -1;
+
+    //one bitboard per kind of piece, indexed by ChessPiece.index(color, type)
+    transient long[] pieces = new long[ChessPiece.KINDS];
+    //every square a team occupies, indexed by team ordinal
+    transient long[] occupancy = new long[2];
+    //piece index standing on each square (or EMPTY), so lookups don't test all twelve bitboards
+    transient byte[] squares = emptySquares();
+    //Zobrist key of the pieces on the board, updated whenever a piece is put or removed
+    transient long key;
+    //white-minus-black sums of PieceSquareTables entries and the game phase, updated along with the key
+    transient int middlegame;
+    transient int endgame;
+    transient int phase;
 
     public ChessBoard() {
 
     }
 
     public ChessBoard(ChessBoard currentBoard) {
-        this.squares = new ChessPiece[8][8];
-        for (int i = 0; i < 8; i++) {
-
-            for (int j = 0; j < 8; j++) {
-                ChessPiece piece = currentBoard.squares[i][j];
-                if (piece != null) {
-                    this.squares[i][j] = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                } else {
-                    this.squares[i][j] = null;
-                }
-            }
-        }
+        this.pieces = currentBoard.pieces.clone();
+        this.occupancy = currentBoard.occupancy.clone();
+        this.squares = currentBoard.squares.clone();
+        this.key = currentBoard.key;
+        this.middlegame = currentBoard.middlegame;
+        this.endgame = currentBoard.endgame;
+        this.phase = currentBoard.phase;
+    }
+
+    private static byte[] emptySquares() {
+        byte[] empty = new byte[64];
+        Arrays.fill(empty, (byte) EMPTY);
+        return empty;
     }
 
     /**
@@ -39,7 +58,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int sq = Bitboards.square(position);
+        removePiece(sq);
+        if (piece != null) {
+            putPiece(sq, piece.index());
+        }
     }
 
     /**
@@ -50,9 +73,8 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-
-        return squares[position.getRow() - 1][position.getColumn() - 1];
-
+        int piece = squares[Bitboards.square(position)];
+        return piece == EMPTY ? null : ChessPiece.ofIndex(piece);
     }
 
     /**
@@ -60,33 +82,204 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        //pawns
-        for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        clear();
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 1; col <= 8; col++) {
+            putPiece(Bitboards.square(2, col), ChessPiece.index(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(7, col), ChessPiece.index(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.square(1, col), ChessPiece.index(ChessGame.TeamColor.WHITE, backRank[col - 1]));
+            putPiece(Bitboards.square(8, col), ChessPiece.index(ChessGame.TeamColor.BLACK, backRank[col - 1]));
         }
-        //white pieces
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+    }
 
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        //black pieces
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+    private void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(squares, (byte) EMPTY);
+        key = 0L;
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+    }
 
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    //places a piece index on an empty square
+    void putPiece(int sq, int piece) {
+        long b = Bitboards.bit(sq);
+        pieces[piece] |= b;
+        occupancy[ChessPiece.colorOf(piece)] |= b;
+        squares[sq] = (byte) piece;
+        key ^= Zobrist.PIECE_SQUARE[piece][sq];
+        middlegame += PieceSquareTables.MIDDLEGAME[piece][sq];
+        endgame += PieceSquareTables.ENDGAME[piece][sq];
+        phase += PieceSquareTables.PHASE[piece];
+    }
+
+    //clears a square, returning the piece index that was there (or EMPTY)
+    int removePiece(int sq) {
+        int piece = squares[sq];
+        if (piece != EMPTY) {
+            long b = Bitboards.bit(sq);
+            pieces[piece] &= ~b;
+            occupancy[ChessPiece.colorOf(piece)] &= ~b;
+            squares[sq] = (byte) EMPTY;
+            key ^= Zobrist.PIECE_SQUARE[piece][sq];
+            middlegame -= PieceSquareTables.MIDDLEGAME[piece][sq];
+            endgame -= PieceSquareTables.ENDGAME[piece][sq];
+            phase -= PieceSquareTables.PHASE[piece];
+        }
+        return piece;
+    }
 
+    /**
+     * Reads a board from the piece placement field of a FEN string, row 8 first. A whole FEN
+     * string is accepted too; only its first field is used.
+     *
+     * @param fen the placement, e.g. {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}
+     * @return the board
+     * @throws IllegalArgumentException if the placement isn't valid
+     */
+    public static ChessBoard fromFen(String fen) {
+        return Fen.parseBoard(fen);
+    }
 
+    /**
+     * @return the piece placement field of FEN for this board
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        Fen.appendPlacement(this, fen);
+        return fen.toString();
+    }
+
+    /**
+     * @return a 64-bit Zobrist fingerprint of where the pieces stand, kept up to date as pieces move
+     */
+    public long positionKey() {
+        return key;
+    }
+
+    /**
+     * Scores the position from material and where each piece stands, blending the middlegame and
+     * endgame tables by how much material is left. The sums are kept up to date as pieces move,
+     * so this is a few arithmetic operations rather than a pass over the board.
+     *
+     * @return the score in centipawns, positive when white stands better
+     */
+    public int evaluate() {
+        int weight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (middlegame * weight + endgame * (PieceSquareTables.MAX_PHASE - weight)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    /**
+     * @return the piece index on a square, or -1 if it is empty
+     */
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    /**
+     * @return bitboard of every square holding the given kind of piece
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[ChessPiece.index(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square the given team occupies
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * Finds a team's king from its bitboard, which is kept up to date as pieces move
+     *
+     * @return the king's square index, or 64 if the team has no king on the board
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        return Long.numberOfTrailingZeros(pieces[ChessPiece.index(color, ChessPiece.PieceType.KING)]);
+    }
+
+    /**
+     * Finds the pieces of a team that attack a square by looking outward from the square
+     * with each piece's attack pattern
+     *
+     * @param sq       the target square
+     * @param byColor  the attacking team
+     * @param occupied occupied squares that block sliding pieces
+     * @return bitboard of the attacking pieces
+     */
+    public long attackersOf(int sq, ChessGame.TeamColor byColor, long occupied) {
+        int base = ChessPiece.index(byColor, ChessPiece.PieceType.KING);
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        ChessGame.TeamColor defender = byColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return (Bitboards.knightAttacks(sq) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.pawnAttacks(defender, sq) & pieces[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.kingAttacks(sq) & pieces[base])
+                | (Bitboards.bishopAttacks(sq, occupied) & (pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Bitboards.rookAttacks(sq, occupied) & (pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * @return true if any piece of the given team attacks the square
+     */
+    public boolean isSquareAttacked(int sq, ChessGame.TeamColor byColor) {
+        return attackersOf(sq, byColor, getOccupied()) != 0;
+    }
+
+    /**
+     * Computes every square the given team attacks (pawns only count their captures)
+     *
+     * @param color the attacking team
+     * @return bitboard of the attacked squares
+     */
+    public long attackedSquares(ChessGame.TeamColor color) {
+        long occupied = getOccupied();
+        long attacks = 0L;
+        long own = occupancy[color.ordinal()];
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            attacks |= ChessPiece.attacks(squares[sq], sq, occupied);
+        }
+        return attacks;
+    }
+
+    /**
+     * Checks for the material no sequence of legal moves can mate with: kings alone, a single
+     * knight or bishop, or only bishops that all stand on the same color of square. The bitboards
+     * double as piece counters, so nothing is scanned.
+     *
+     * @return true if neither team can ever checkmate
+     */
+    public boolean hasInsufficientMaterial() {
+        for (int color = 0; color < 2; color++) {
+            int base = color * 6;
+            if ((pieces[base + ChessPiece.PieceType.PAWN.ordinal()] | pieces[base + ChessPiece.PieceType.ROOK.ordinal()]
+                    | pieces[base + ChessPiece.PieceType.QUEEN.ordinal()]) != 0) {
+                return false;
+            }
+        }
+        int knight = ChessPiece.PieceType.KNIGHT.ordinal();
+        int bishop = ChessPiece.PieceType.BISHOP.ordinal();
+        long knights = pieces[knight] | pieces[6 + knight];
+        long bishops = pieces[bishop] | pieces[6 + bishop];
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & ~Bitboards.LIGHT_SQUARES) == 0);
     }
 
     @Override
@@ -95,19 +288,26 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(key);
     }
 
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "squares=" + Arrays.deepToString(squares) +
-                '}';
+        StringBuilder text = new StringBuilder("ChessBoard{\n");
+        for (int row = 8; row >= 1; row--) {
+            text.append('|');
+            for (int col = 1; col <= 8; col++) {
+                int piece = squares[Bitboards.square(row, col)];
+                text.append(piece == EMPTY ? ' ' : ChessPiece.symbol(piece)).append('|');
+            }
+            text.append('\n');
+        }
+        return text.append('}').toString();
     }
 }
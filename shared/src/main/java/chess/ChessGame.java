@@ -1,8 +1,10 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -10,15 +12,76 @@ import java.util.Objects;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Gson goes through {@link GameAdapter}, which sends only the part of the history in use.
  */
+@JsonAdapter(GameAdapter.class)
 public class ChessGame {
     TeamColor currentTeamColor = TeamColor.WHITE;
     ChessBoard currentBoard = new ChessBoard();
+    //castling right bits still held (see Castling); each move can only clear them
+    int castlingRights = Castling.ALL;
+    //square the team to move can capture onto en passant, or NO_EN_PASSANT
+    int enPassantSquare = NO_EN_PASSANT;
+    //undo record of every move played so far, oldest first; only the first historySize entries are used
+    transient long[] history = new long[0];
+    //position key from before each move in history, for spotting repeated positions
+    transient long[] positionKeys = new long[0];
+    int historySize;
+    //moves since the last capture or pawn move, for the fifty-move rule
+    int halfmoveClock;
+    //plies played before the position the history starts from, so a game read from FEN keeps its move number
+    int startingPly;
+    //legal moves and status already worked out for recent positions; rebuilt on demand, never saved
+    private transient LegalMoveCache moveCache;
+
+    static final int NO_EN_PASSANT = -1;
 
     public ChessGame() {
         currentBoard.resetBoard();
     }
 
+    /**
+     * Copies a game, including its history, so moves made or taken back on the copy don't
+     * touch the original
+     *
+     * @param game the game to copy
+     */
+    public ChessGame(ChessGame game) {
+        currentBoard = new ChessBoard(game.currentBoard);
+        currentTeamColor = game.currentTeamColor;
+        castlingRights = game.castlingRights;
+        enPassantSquare = game.enPassantSquare;
+        history = Arrays.copyOf(game.history, game.historySize);
+        positionKeys = Arrays.copyOf(game.positionKeys, game.historySize);
+        historySize = game.historySize;
+        halfmoveClock = game.halfmoveClock;
+        startingPly = game.startingPly;
+    }
+
+    /**
+     * Sets up a game at a position given field by field, the way FEN describes one. Castling
+     * rights whose king or rook has left its starting square, and an en passant square no pawn
+     * can capture onto, are dropped.
+     *
+     * @param board           the pieces; the game takes ownership of it
+     * @param teamTurn        the team to move
+     * @param castlingRights  castling right bits: 1 white kingside, 2 white queenside,
+     *                        4 black kingside, 8 black queenside
+     * @param enPassantSquare the square a pawn skipped over on the last move (row - 1) * 8 + (column - 1), or -1
+     * @param halfmoveClock   moves since the last capture or pawn move
+     * @param fullmoveNumber  the move number, starting from 1 and counting up after black moves
+     */
+    public ChessGame(ChessBoard board, TeamColor teamTurn, int castlingRights, int enPassantSquare,
+                     int halfmoveClock, int fullmoveNumber) {
+        this(board, teamTurn);
+        this.castlingRights &= castlingRights;
+        this.enPassantSquare = enPassantSquare >= 0 && enPassantSquare < 64 && canCaptureEnPassant(enPassantSquare)
+                ? enPassantSquare : NO_EN_PASSANT;
+        this.halfmoveClock = halfmoveClock;
+        this.startingPly = (Math.max(fullmoveNumber, 1) - 1) * 2 + teamTurn.ordinal();
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -32,6 +95,10 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
+        //an en passant chance only ever belongs to the team that was about to move
+        if (team != currentTeamColor) {
+            enPassantSquare = NO_EN_PASSANT;
+        }
         currentTeamColor = team;
     }
 
@@ -41,12 +108,80 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return currentTeamColor == chessGame.currentTeamColor && Objects.equals(currentBoard, chessGame.currentBoard);
+        return currentTeamColor == chessGame.currentTeamColor && castlingRights == chessGame.castlingRights
+                && enPassantSquare == chessGame.enPassantSquare && Objects.equals(currentBoard, chessGame.currentBoard);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentTeamColor, currentBoard);
+        return Long.hashCode(positionKey());
+    }
+
+    /**
+     * @return a 64-bit Zobrist fingerprint of the position, covering the pieces, the team to move,
+     * the castling rights and the en passant square
+     */
+    public long positionKey() {
+        long key = currentBoard.positionKey() ^ Zobrist.CASTLING[castlingRights];
+        if (currentTeamColor == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if (enPassantSquare != NO_EN_PASSANT) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        return key;
+    }
+
+    //the position key as if teamColor were the team to move, so each team's moves get their own cache entry
+    private long cacheKey(TeamColor teamColor) {
+        long key = positionKey();
+        if (teamColor != currentTeamColor) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    private int enPassantFor(TeamColor teamColor) {
+        return teamColor == currentTeamColor ? enPassantSquare : NO_EN_PASSANT;
+    }
+
+    private LegalMoveCache cache() {
+        if (moveCache == null) {
+            moveCache = new LegalMoveCache();
+        }
+        return moveCache;
+    }
+
+    //every legal move of a team, generated once per position and then served from the cache
+    MoveList legalMoves(TeamColor teamColor) {
+        long key = cacheKey(teamColor);
+        MoveList moveList = cache().moves(key);
+        if (moveList == null) {
+            moveList = new MoveList();
+            MoveGenerator.generate(currentBoard, teamColor, castlingRights, enPassantFor(teamColor), -1L, moveList);
+            cache().putMoves(key, moveList);
+        }
+        return moveList;
+    }
+
+    //check, checkmate or stalemate for a team, reusing its cached moves when they've been generated
+    GameStatus status(TeamColor teamColor) {
+        long key = cacheKey(teamColor);
+        GameStatus status = cache().status(key);
+        if (status == null) {
+            MoveList moveList = cache().moves(key);
+            boolean hasMove = moveList != null
+                    ? !moveList.isEmpty()
+                    : MoveGenerator.hasLegalMove(currentBoard, teamColor, castlingRights, enPassantFor(teamColor));
+            boolean inCheck = isInCheck(teamColor);
+            if (hasMove) {
+                status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+            } else {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            }
+            cache().putStatus(key, status);
+        }
+        return status;
     }
 
     /**
@@ -57,6 +192,39 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The state of the game for the team whose turn it is
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE,
+        INSUFFICIENT_MATERIAL
+    }
+
+    /**
+     * Sets up a game from a FEN string, e.g.
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}. The two clocks may be left off.
+     *
+     * @param fen the position
+     * @return a new game at that position, with no moves to take back
+     * @throws IllegalArgumentException if the string isn't valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parseGame(fen);
+    }
+
+    /**
+     * @return the position in FEN, with all six fields. An en passant square is only written
+     * when a pawn can actually capture onto it.
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
     //Returns the opposite of the color whose turn it is
     public TeamColor oppositeTeamColor(TeamColor color) {
         if (color == TeamColor.WHITE) {
@@ -67,33 +235,323 @@ public class ChessGame {
     }
 
     public ChessBoard boardAfterMoving(ChessBoard board, ChessMove move) {
-        //try the move
-        //set up the temp board same as the normal one
         ChessBoard tempBoard = new ChessBoard(board);
-        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessGame tempGame = new ChessGame(tempBoard, currentTeamColor);
+        tempGame.makeMoveUnchecked(move);
+        return tempBoard;
+    }
 
-        //If the move is in the piece's possible moves list
-        if (move.getPromotionPiece() != null) {
-            tempBoard.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-        } else {
-            tempBoard.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
+    ChessGame(ChessBoard board, TeamColor teamTurn) {
+        currentBoard = board;
+        currentTeamColor = teamTurn;
+        castlingRights = Castling.fromPlacement(board);
+    }
+
+    /*
+     * Undo records pack everything needed to take a move back into one long:
+     * bits 0-19 the packed move (see Move), 20-23 moved piece index,
+     * 24-27 captured piece index + 1 (0 when nothing was captured),
+     * 28-31 the castling rights before the move, 32-38 the en passant square before the move + 1,
+     * 40-55 the halfmove clock before the move.
+     */
+    private static long packUndo(int move, int moved, int captured, int rights, int enPassant, int clock) {
+        return (move & 0xFFFFFL) | ((long) moved << 20) | ((long) (captured + 1) << 24)
+                | ((long) rights << 28) | ((long) (enPassant + 1) << 32) | ((long) (clock & 0xFFFF) << 40);
+    }
+
+    //the square of the pawn an en passant capture takes: beside the start square, on the end square's column
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    //a ChessMove carries no flags, so castling, en passant and double pushes are recognized from the board
+    private int withFlags(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = currentBoard.pieceAt(from);
+        if (piece == ChessBoard.EMPTY) {
+            return move;
+        }
+        ChessPiece.PieceType type = ChessPiece.typeOf(piece);
+        if (type == ChessPiece.PieceType.KING && Math.abs(Bitboards.column(to) - Bitboards.column(from)) == 2) {
+            return move | Move.CASTLE;
+        }
+        if (type == ChessPiece.PieceType.PAWN) {
+            if (Math.abs(to - from) == 16) {
+                return move | Move.DOUBLE_PUSH;
+            }
+            if (Bitboards.column(to) != Bitboards.column(from) && currentBoard.pieceAt(to) == ChessBoard.EMPTY) {
+                return move | Move.CAPTURE | Move.EN_PASSANT;
+            }
         }
+        return move;
+    }
 
-        //set the start spot to null
-        tempBoard.addPiece(move.getStartPosition(), null);
-        return tempBoard;
+    //the square a double push skipped, but only if an enemy pawn is there to capture onto it,
+    //so positions that differ by an unusable en passant square still get the same key
+    private int enPassantAfter(int from, int to, int moved) {
+        int skipped = (from + to) >>> 1;
+        TeamColor mover = ChessPiece.teamOf(moved);
+        long enemyPawns = currentBoard.getPieces(oppositeTeamColor(mover), ChessPiece.PieceType.PAWN);
+        return (Bitboards.pawnAttacks(mover, skipped) & enemyPawns) != 0 ? skipped : NO_EN_PASSANT;
+    }
+
+    //whether the team to move has a pawn that can capture onto sq, beside an enemy pawn that just double pushed past it
+    private boolean canCaptureEnPassant(int sq) {
+        TeamColor enemy = oppositeTeamColor(currentTeamColor);
+        int pushed = currentTeamColor == TeamColor.WHITE ? sq - 8 : sq + 8;
+        if (Bitboards.row(sq) != (currentTeamColor == TeamColor.WHITE ? 6 : 3)
+                || currentBoard.pieceAt(pushed) != ChessPiece.index(enemy, ChessPiece.PieceType.PAWN)) {
+            return false;
+        }
+        return (Bitboards.pawnAttacks(enemy, sq) & currentBoard.getPieces(currentTeamColor, ChessPiece.PieceType.PAWN)) != 0;
+    }
+
+    /**
+     * Plays a move on the current board in place, without checking that it is valid,
+     * passes the turn to the other team and adds the move to the history
+     *
+     * @param move the move to play; its start square must hold a piece
+     * @return an undo record that restores the previous position when passed to unmakeMove
+     */
+    public long makeMoveUnchecked(ChessMove move) {
+        return makeMoveUnchecked(withFlags(Move.fromChessMove(move)));
+    }
+
+    /**
+     * Plays a packed move (see {@link Move}) on the current board in place, without checking
+     * that it is valid, passes the turn to the other team and adds the move to the history
+     *
+     * @param move the move to play; its start square must hold a piece
+     * @return an undo record that restores the previous position when passed to unmakeMove
+     */
+    public long makeMoveUnchecked(int move) {
+        long keyBefore = positionKey();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = currentBoard.removePiece(from);
+        int captured = currentBoard.removePiece(Move.isEnPassant(move) ? enPassantVictim(from, to) : to);
+        int placed = moved;
+        if (Move.promotion(move) != null) {
+            placed = ChessPiece.index(ChessPiece.teamOf(moved), Move.promotion(move));
+        }
+        currentBoard.putPiece(to, placed);
+        if (Move.isCastle(move)) {
+            currentBoard.putPiece(Castling.rookTo(to), currentBoard.removePiece(Castling.rookFrom(to)));
+        }
+        long undo = packUndo(move, moved, captured, castlingRights, enPassantSquare, halfmoveClock);
+        boolean irreversible = captured != ChessBoard.EMPTY || ChessPiece.typeOf(moved) == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        castlingRights = Castling.update(castlingRights, from, to);
+        enPassantSquare = (move & Move.DOUBLE_PUSH) != 0 ? enPassantAfter(from, to, moved) : NO_EN_PASSANT;
+        currentTeamColor = oppositeTeamColor(currentTeamColor);
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, Math.max(16, history.length * 2));
+            positionKeys = Arrays.copyOf(positionKeys, history.length);
+        }
+        positionKeys[historySize] = keyBefore;
+        history[historySize++] = undo;
+        return undo;
+    }
+
+    //sets the history to undo records read back for the current position, working out the key
+    //before each move by taking the moves back on a copy; throws IllegalArgumentException if a
+    //record doesn't match the board it is taken back from
+    void restoreHistory(long[] records) {
+        ChessGame past = new ChessGame(this);
+        past.history = records;
+        past.historySize = records.length;
+        long[] keys = new long[records.length];
+        for (int ply = records.length - 1; ply >= 0; ply--) {
+            if (!past.canUnmake(records[ply])) {
+                throw new IllegalArgumentException("History record " + ply + " doesn't match the board");
+            }
+            past.unmakeMove(records[ply]);
+            keys[ply] = past.positionKey();
+        }
+        history = records;
+        positionKeys = keys;
+        historySize = records.length;
+    }
+
+    //whether an undo record could have come from the last move played to reach this position:
+    //the piece it moved stands on the end square, the squares it left are empty and anything it
+    //captured belongs to the team now to move
+    private boolean canUnmake(long undo) {
+        int move = (int) (undo & 0xFFFFF);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = (int) ((undo >>> 20) & 15);
+        int captured = (int) ((undo >>> 24) & 15) - 1;
+        int mover = oppositeTeamColor(currentTeamColor).ordinal();
+        if (from == to || moved >= 12 || ChessPiece.colorOf(moved) != mover
+                || currentBoard.pieceAt(from) != ChessBoard.EMPTY) {
+            return false;
+        }
+        int placed = moved;
+        int promotionBits = (move >>> 12) & 7;
+        if (promotionBits != 0) {
+            if (ChessPiece.typeOf(moved) != ChessPiece.PieceType.PAWN || promotionBits < 2 || promotionBits > 5) {
+                return false;
+            }
+            placed = ChessPiece.index(ChessPiece.teamOf(moved), Move.promotion(move));
+        }
+        if (currentBoard.pieceAt(to) != placed) {
+            return false;
+        }
+        if (Move.isCastle(move)) {
+            int rook = ChessPiece.index(ChessPiece.teamOf(moved), ChessPiece.PieceType.ROOK);
+            if (ChessPiece.typeOf(moved) != ChessPiece.PieceType.KING || currentBoard.pieceAt(Castling.rookTo(to)) != rook
+                    || currentBoard.pieceAt(Castling.rookFrom(to)) != ChessBoard.EMPTY) {
+                return false;
+            }
+        }
+        if (captured == ChessBoard.EMPTY) {
+            return !Move.isEnPassant(move);
+        }
+        if (captured >= 12 || ChessPiece.colorOf(captured) == mover
+                || ChessPiece.typeOf(captured) == ChessPiece.PieceType.KING) {
+            return false;
+        }
+        return !Move.isEnPassant(move) || (ChessPiece.typeOf(captured) == ChessPiece.PieceType.PAWN
+                && currentBoard.pieceAt(enPassantVictim(from, to)) == ChessBoard.EMPTY);
     }
 
-    private boolean kingIsLeftInCheck(ChessMove move) {
-        ChessBoard savedBoard = currentBoard;
+    /**
+     * Takes back a move played with makeMoveUnchecked and drops it from the history. Moves must
+     * be unmade in the reverse order they were made.
+     *
+     * @param undo the record makeMoveUnchecked returned
+     */
+    public void unmakeMove(long undo) {
+        int move = (int) (undo & 0xFFFFF);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = (int) ((undo >>> 20) & 15);
+        int captured = (int) ((undo >>> 24) & 15) - 1;
+        if (Move.isCastle(move)) {
+            currentBoard.putPiece(Castling.rookFrom(to), currentBoard.removePiece(Castling.rookTo(to)));
+        }
+        currentBoard.removePiece(to);
+        currentBoard.putPiece(from, moved);
+        if (captured != ChessBoard.EMPTY) {
+            currentBoard.putPiece(Move.isEnPassant(move) ? enPassantVictim(from, to) : to, captured);
+        }
+        castlingRights = (int) ((undo >>> 28) & 15);
+        enPassantSquare = (int) ((undo >>> 32) & 127) - 1;
+        halfmoveClock = (int) ((undo >>> 40) & 0xFFFF);
+        currentTeamColor = oppositeTeamColor(currentTeamColor);
+        historySize--;
+    }
+
+    /**
+     * Gives a quick static score of the position, cheap enough to send along with every move.
+     * See {@link ChessBoard#evaluate()}.
+     *
+     * @return the score in centipawns, positive when white stands better
+     */
+    public int evaluate() {
+        return currentBoard.evaluate();
+    }
+
+    /**
+     * @return the castling right bits still held: 1 white kingside, 2 white queenside,
+     * 4 black kingside, 8 black queenside
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square the team to move can capture onto en passant, or -1 if there isn't one
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the move number, starting from 1 and counting up after black moves
+     */
+    public int getFullmoveNumber() {
+        return (startingPly + historySize) / 2 + 1;
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
 
-        ChessPiece piece = savedBoard.getPiece(move.getStartPosition());
-        currentBoard = boardAfterMoving(currentBoard, move);
+    /**
+     * Counts earlier occurrences of the current position. A capture or pawn move can never be
+     * undone, so only the positions since the last one (as far back as the halfmove clock goes),
+     * with the same team to move, need to be compared.
+     *
+     * @return how many times the position has occurred before
+     */
+    public int repetitions() {
+        long key = positionKey();
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        int count = 0;
+        for (int ply = historySize - 2; ply >= oldest; ply -= 2) {
+            if (positionKeys[ply] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
 
-        boolean stillChecked = isInCheck(piece.getTeamColor());
+    /**
+     * @return how many moves have been played since the game started or its board was set
+     */
+    public int historySize() {
+        return historySize;
+    }
 
-        currentBoard = savedBoard;
-        return stillChecked;
+    /**
+     * Gets a move from the game's history
+     *
+     * @param ply which move, counting from 0 for the first one played
+     * @return the move played at that ply
+     */
+    public ChessMove moveAt(int ply) {
+        if (ply < 0 || ply >= historySize) {
+            throw new IndexOutOfBoundsException("No move at ply " + ply + " of " + historySize);
+        }
+        return Move.toChessMove((int) (history[ply] & 0xFFFFF));
+    }
+
+    /**
+     * Takes back the last move played
+     *
+     * @return the move that was taken back, or null if there are no moves to take back
+     */
+    public ChessMove undo() {
+        if (historySize == 0) {
+            return null;
+        }
+        long undo = history[historySize - 1];
+        unmakeMove(undo);
+        return Move.toChessMove((int) (undo & 0xFFFFF));
+    }
+
+    /**
+     * Rebuilds the game as it stood after its first toPly moves by taking moves back on a copy,
+     * leaving this game as it is
+     *
+     * @param toPly how many of the game's moves to keep
+     * @return a new game at that point, holding the history up to it
+     */
+    public ChessGame replay(int toPly) {
+        if (toPly < 0 || toPly > historySize) {
+            throw new IndexOutOfBoundsException("Can't replay to ply " + toPly + " of " + historySize);
+        }
+        ChessGame past = new ChessGame(this);
+        while (past.historySize > toPly) {
+            past.unmakeMove(past.history[past.historySize - 1]);
+        }
+        return past;
     }
 
     /**
@@ -108,16 +566,43 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> moveList = piece.pieceMoves(currentBoard, startPosition);
-
-        //can't move if it places king in check
-        for (ChessMove move : moveList.toArray(new ChessMove[0])) {
-            if (kingIsLeftInCheck(move)) {
-                moveList.remove(move);
+        int from = Bitboards.square(startPosition);
+        MoveList moveList = legalMoves(piece.getTeamColor());
+        Collection<ChessMove> moves = new ArrayList<>();
+        for (int i = 0; i < moveList.size(); i++) {
+            if (Move.from(moveList.get(i)) == from) {
+                moves.add(Move.toChessMove(moveList.get(i)));
             }
         }
+        return moves;
+    }
 
-        return moveList;
+    /**
+     * Adds every legal move of the team to move, including castling and en passant, as packed moves
+     *
+     * @param moveList where the moves are added
+     */
+    public void generateMoves(MoveList moveList) {
+        MoveGenerator.generate(currentBoard, currentTeamColor, castlingRights, enPassantSquare, -1L, moveList);
+    }
+
+    /**
+     * Adds the legal captures of the team to move, including en passant, as packed moves
+     *
+     * @param moveList where the moves are added
+     */
+    public void generateCaptures(MoveList moveList) {
+        MoveGenerator.generateCaptures(currentBoard, currentTeamColor, enPassantSquare, moveList);
+    }
+
+    /**
+     * Gets every valid move for a team in one generation pass
+     *
+     * @param teamColor the team to get valid moves for
+     * @return the team's valid moves
+     */
+    public Collection<ChessMove> allValidMoves(TeamColor teamColor) {
+        return legalMoves(teamColor).toChessMoves();
     }
 
     /**
@@ -136,14 +621,11 @@ public class ChessGame {
         if (currentTeamColor != piece.getTeamColor()) {
             throw new InvalidMoveException();
         }
-        if (!piece.pieceMoves(currentBoard, move.getStartPosition()).contains(move)) {
-            throw new InvalidMoveException();
-        }
-        if (kingIsLeftInCheck(move)) {
+        int legalMove = legalMoves(currentTeamColor).find(move);
+        if (legalMove == Move.NONE) {
             throw new InvalidMoveException();
         }
-        currentBoard = boardAfterMoving(currentBoard, move);
-        setTeamTurn(oppositeTeamColor(currentTeamColor));
+        makeMoveUnchecked(legalMove);
 
     }
 
@@ -154,63 +636,19 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        //find and assign king
-        ChessPiece kingPiece;
-        ChessPosition kingPosition = null;
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition piecePosition = new ChessPosition(i, j);
-                ChessPiece piece = currentBoard.getPiece(piecePosition);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    kingPosition = new ChessPosition(i, j);
-                }
-            }
-        }
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition piecePosition = new ChessPosition(i, j);
-                ChessPiece piece = currentBoard.getPiece(piecePosition);
-                //check if the piece is on the other team
-                if (piece == null || piece.getTeamColor() != oppositeTeamColor(teamColor)) {
-                    continue;
-                }
-
-                //check if it can attack the king.
-                //stupid pawns
-                if (piece.getPieceType() == ChessPiece.PieceType.PAWN
-                        && piece.getTeamColor() == TeamColor.WHITE && kingPosition != null
-                ) {
-                    ChessPosition diag1 = new ChessPosition(piecePosition.getRow() + 1, piecePosition.getColumn() - 1);
-                    ChessPosition diag2 = new ChessPosition(piecePosition.getRow() + 1, piecePosition.getColumn() + 1);
-                    if (kingPosition.equals(diag1) || kingPosition.equals(diag2)) {
-                        return true;
-                    }
-                    continue;
-                }
-                if (piece.getPieceType() == ChessPiece.PieceType.PAWN
-                        && piece.getTeamColor() == TeamColor.BLACK && kingPosition != null
-                ) {
-                    ChessPosition diag1 = new ChessPosition(piecePosition.getRow() - 1, piecePosition.getColumn() - 1);
-                    ChessPosition diag2 = new ChessPosition(piecePosition.getRow() - 1, piecePosition.getColumn() + 1);
-                    if (kingPosition.equals(diag1) || kingPosition.equals(diag2)) {
-                        return true;
-                    }
-                    continue;
-                }
-
-                //normal piece that work normally without confusing me at all
-
-                for (ChessMove move : piece.pieceMoves(currentBoard, piecePosition)) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
-
-            }
+        int king = currentBoard.kingSquare(teamColor);
+        return king < 64 && currentBoard.isSquareAttacked(king, oppositeTeamColor(teamColor));
+    }
 
-        }
-        return false;
+    /**
+     * Determines if any piece of a team attacks a square
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if a piece of byColor could capture on that square
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return currentBoard.isSquareAttacked(Bitboards.square(position), byColor);
     }
 
     /**
@@ -220,24 +658,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition currentPos = new ChessPosition(i, j);
-                ChessPiece piece = currentBoard.getPiece(currentPos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(currentPos);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-
-                }
-            }
-        }
-
-        return true;
+        return status(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -248,21 +669,32 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
+        return status(teamColor) == GameStatus.STALEMATE;
+    }
 
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition pos = new ChessPosition(i, j);
-                ChessPiece piece = currentBoard.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor && !validMoves(pos).isEmpty()) {
-                    return false;
-                }
-            }
+    /**
+     * Works out check, checkmate and stalemate for the team whose turn it is in a single pass
+     * that stops at the first valid move it finds, then the draws: the same position three times,
+     * fifty moves by each team without a capture or pawn move, or too little material to mate.
+     * A checkmate stands even when it lands on a draw.
+     *
+     * @return the status of the team to move
+     */
+    public GameStatus evaluateStatus() {
+        GameStatus status = status(currentTeamColor);
+        if (status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE) {
+            return status;
         }
-
-        return true;
+        if (halfmoveClock >= 100) {
+            return GameStatus.FIFTY_MOVE_RULE;
+        }
+        if (currentBoard.hasInsufficientMaterial()) {
+            return GameStatus.INSUFFICIENT_MATERIAL;
+        }
+        if (repetitions() >= 2) {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        return status;
     }
 
     /**
@@ -272,6 +704,18 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         currentBoard = board;
+        //nothing is known about how the board was reached, so assume unmoved kings and rooks can still castle
+        castlingRights = Castling.fromPlacement(board);
+        enPassantSquare = NO_EN_PASSANT;
+        //the old moves led to the old board, so they can't be taken back from this one
+        history = new long[0];
+        positionKeys = new long[0];
+        historySize = 0;
+        halfmoveClock = 0;
+        startingPly = 0;
+        if (moveCache != null) {
+            moveCache.clear();
+        }
     }
 
     /**
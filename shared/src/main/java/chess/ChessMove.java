@@ -9,9 +9,33 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
-    private ChessPosition startPosition;
-    private ChessPosition endPosition;
-    private ChessPiece.PieceType promotionPiece;
+    //canonical moves indexed by [start square * 64 + end square][promotion ordinal + 1]
+    private static final ChessMove[][] MOVES = new ChessMove[64 * 64][ChessPiece.PieceType.values().length + 1];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                MOVES[from * 64 + to][0] = new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), null);
+                //promotions only happen on a pawn step onto the last row
+                boolean whitePromotion = Bitboards.row(from) == 7 && Bitboards.row(to) == 8;
+                boolean blackPromotion = Bitboards.row(from) == 2 && Bitboards.row(to) == 1;
+                if ((whitePromotion || blackPromotion) && Math.abs(Bitboards.column(from) - Bitboards.column(to)) <= 1) {
+                    for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                        MOVES[from * 64 + to][type.ordinal() + 1] =
+                                new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), type);
+                    }
+                }
+            }
+        }
+    }
+
+    //the UCI letter for each promotion PieceType by ordinal; there is no king promotion
+    private static final String UCI_PROMOTIONS = "-qbnr";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final ChessPosition startPosition;
+    private final ChessPosition endPosition;
+    private final ChessPiece.PieceType promotionPiece;
 
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
@@ -21,6 +45,19 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move between two squares, so move generation doesn't allocate
+     *
+     * @param from           start square index
+     * @param to             end square index
+     * @param promotionPiece piece a pawn promotes to, or null
+     * @return the canonical move
+     */
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        ChessMove move = MOVES[from * 64 + to][promotionPiece == null ? 0 : promotionPiece.ordinal() + 1];
+        return move != null ? move : new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), promotionPiece);
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -45,6 +82,82 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * Reads a move in the UCI engine protocol's long algebraic form: the start square, the end
+     * square and a promotion letter if there is one, like e2e4 or e7e8q
+     *
+     * @param uci the move text
+     * @return the move
+     * @throws IllegalArgumentException if the text isn't a UCI move
+     */
+    public static ChessMove fromUci(String uci) {
+        int from = San.parseSquare(uci, 0);
+        int to = San.parseSquare(uci, 2);
+        int promotion = uci.length() == 5 ? UCI_PROMOTIONS.indexOf(uci.charAt(4)) : -1;
+        if (from < 0 || to < 0 || uci.length() > 5 || (uci.length() == 5 && promotion < 1)) {
+            throw new IllegalArgumentException("Bad UCI move \"" + uci + "\"");
+        }
+        return of(from, to, promotion < 0 ? null : TYPES[promotion]);
+    }
+
+    /**
+     * @return the move in UCI long algebraic form, like e2e4 or e7e8q
+     * @throws IllegalArgumentException if the move promotes to something other than a queen,
+     *                                  rook, bishop or knight
+     */
+    public String toUci() {
+        StringBuilder uci = new StringBuilder(5);
+        San.appendSquare(uci, Bitboards.square(startPosition));
+        San.appendSquare(uci, Bitboards.square(endPosition));
+        if (promotionPiece != null) {
+            int promotion = promotionPiece.ordinal();
+            if (promotion < 1 || promotion >= UCI_PROMOTIONS.length()) {
+                throw new IllegalArgumentException("A move can't promote to a " + promotionPiece);
+            }
+            uci.append(UCI_PROMOTIONS.charAt(promotion));
+        }
+        return uci.toString();
+    }
+
+    /**
+     * Reads a move in Standard Algebraic Notation, like Nf3, exd5, O-O or e8=Q+
+     *
+     * @param san  the move text
+     * @param game the game the move is played in, which decides what the text refers to
+     * @return the legal move the text names
+     * @throws IllegalArgumentException if the text doesn't name exactly one legal move
+     */
+    public static ChessMove fromSan(String san, ChessGame game) {
+        return San.parse(game, san);
+    }
+
+    /**
+     * Writes the move in Standard Algebraic Notation, with + or # when it gives check or mate.
+     * The game is left as it was.
+     *
+     * @param game the game the move is about to be played in
+     * @return the move text, like Nbxd2+
+     * @throws IllegalArgumentException if the move isn't legal in the game
+     */
+    public String toSan(ChessGame game) {
+        return San.format(game, this);
+    }
+
+    /**
+     * Reads a move written either way: as UCI when the text is two squares and maybe a
+     * promotion letter (e2e4, e7e8q), and as SAN otherwise
+     *
+     * @param text the move text
+     * @param game the game the move is played in
+     * @return the move; a UCI move isn't checked against the game
+     * @throws IllegalArgumentException if the text is neither
+     */
+    public static ChessMove fromNotation(String text, ChessGame game) {
+        boolean uci = (text.length() == 4 || text.length() == 5)
+                && San.parseSquare(text, 0) >= 0 && San.parseSquare(text, 2) >= 0;
+        return uci ? fromUci(text) : fromSan(text, game);
+    }
+
     public String toString() {
         return String.format("%s%s", startPosition, endPosition);
     }
@@ -1,8 +1,6 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -13,14 +11,46 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
-    private ChessGame.TeamColor pieceColor;
-    private PieceType type;
+    /**
+     * Number of distinct kinds of piece (six types for each of the two teams)
+     */
+    static final int KINDS = 12;
+
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
+
+    private static final ChessPiece[] PIECES = new ChessPiece[KINDS];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[index(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor pieceColor;
+    private final PieceType type;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a kind of piece. Pieces are immutable, so these can be
+     * handed out instead of allocating a new piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[index(pieceColor, type)];
+    }
+
+    //the shared instance for a piece index
+    static ChessPiece ofIndex(int piece) {
+        return PIECES[piece];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -61,299 +91,136 @@ public class ChessPiece {
         return type;
     }
 
-    void addKingMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                //King can't move to the pos it starts at
-                if (i == 0 && j == 0) {
-                    continue;
-                }
-
-                ChessPosition newPos = new ChessPosition(i + myPosition.getRow(), j + myPosition.getColumn());
-                //Can't move off the grid
-                if (newPos.getColumn() > 8 || newPos.getColumn() < 1 || newPos.getRow() > 8 || newPos.getRow() < 1) {
-                    continue;
-                }
-                ChessMove newSpot = new ChessMove(myPosition, newPos, null);
-                //You can't move on top of your own team
-                if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                    continue;
-                }
-                moveList.add(newSpot);
-            }
-        }
+    /**
+     * @return the index used for this kind of piece in the board's bitboards
+     */
+    public static int index(ChessGame.TeamColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
     }
 
-    void tryPawnCapture(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList, ChessPosition newPos){
-        if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor() != piece.getTeamColor()) {
-            if (newPos.getRow() == 1 || newPos.getRow() == 8) {
-                moveList.add(new ChessMove(myPosition, newPos, PieceType.QUEEN));
-                moveList.add(new ChessMove(myPosition, newPos, PieceType.BISHOP));
-                moveList.add(new ChessMove(myPosition, newPos, PieceType.KNIGHT));
-                moveList.add(new ChessMove(myPosition, newPos, PieceType.ROOK));
-            } else {
-                moveList.add(new ChessMove(myPosition, newPos, null));
-            }
-        }
+    int index() {
+        return index(pieceColor, type);
     }
 
-    void addPawnDiagonalMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        //Moving Diagonally to capture
-        ChessPosition newPos2, newPos3, newPos4, newPos5;
-        //white moves diagonally to capture black
-        boolean currentlyPromotingDiagonal = false;
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            if (myPosition.getRow() + 1 <= 8 && myPosition.getColumn() + 1 <= 8) {
-                newPos2 = new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn() + 1);
-                tryPawnCapture(piece, board, myPosition,moveList,newPos2);
-            }
-
-            if (myPosition.getRow() + 1 <= 8 && myPosition.getColumn() - 1 >= 1) {
-                newPos3 = new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn() - 1);
-                tryPawnCapture(piece, board, myPosition,moveList,newPos3);
-
-            }
-        }
-
-        //black moves diagonally to capture white
-        if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
-            if (myPosition.getRow() - 1 >= 1 && myPosition.getColumn() + 1 <= 8) {
-                newPos4 = new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn() + 1);
-                tryPawnCapture(piece, board, myPosition,moveList,newPos4);
-
-            }
-            if (myPosition.getRow() - 1 >= 1 && myPosition.getColumn() - 1 >= 1) {
-                newPos5 = new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn() - 1);
-                tryPawnCapture(piece, board, myPosition,moveList,newPos5);
-            }
-        }
+    /**
+     * @return the team ordinal of a piece index
+     */
+    public static int colorOf(int piece) {
+        return piece / 6;
     }
 
-    void addPawnMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        //Moving forward 1
-        ChessPosition newPos;
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            newPos = new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn());
-        } else {
-            newPos = new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn());
-        }
-        //Promotion
-        boolean currentlyPromoting = false;
-        if (newPos.getRow() == 1 || newPos.getRow() == 8) {
-            moveList.add(new ChessMove(myPosition, newPos, PieceType.QUEEN));
-            moveList.add(new ChessMove(myPosition, newPos, PieceType.BISHOP));
-            moveList.add(new ChessMove(myPosition, newPos, PieceType.KNIGHT));
-            moveList.add(new ChessMove(myPosition, newPos, PieceType.ROOK));
-            currentlyPromoting = true;
-        }
-
-        ChessMove newSpot = new ChessMove(myPosition, newPos, null);
-
-        //move forward 1 if the space in front of pawn is empty
-        if (board.getPiece(newPos) == null && !currentlyPromoting) {
-            moveList.add(newSpot);
-        }
-
-        //Moving forward 2 at the start
-        ChessPosition newPosStart;
-        boolean isStartingPos = false;
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            newPosStart = new ChessPosition(myPosition.getRow() + 2, myPosition.getColumn());
-            if (myPosition.getRow() == 2) {
-                isStartingPos = true;
-            }
-        } else {
-            newPosStart = new ChessPosition(myPosition.getRow() - 2, myPosition.getColumn());
-            if (myPosition.getRow() == 7) {
-                isStartingPos = true;
-            }
-        }
-
-        ChessMove newSpotStart = null;
-        if (newPosStart.getRow() <= 8 && newPosStart.getRow() >= 1 && newPosStart.getColumn() <= 8 && newPosStart.getColumn() >= 1) {
-            newSpotStart = new ChessMove(myPosition, newPosStart, null);
-        }
-        //move forward 2 if the spaces in front of pawn are empty
-        if (newSpotStart != null && board.getPiece(newPosStart) == null && board.getPiece(newPos) == null && isStartingPos) {
-            moveList.add(newSpotStart);
-        }
+    static ChessGame.TeamColor teamOf(int piece) {
+        return TEAMS[piece / 6];
+    }
 
-        addPawnDiagonalMoves(piece, board, myPosition, moveList);
+    /**
+     * @return the type of a piece index
+     */
+    public static PieceType typeOf(int piece) {
+        return TYPES[piece % 6];
     }
 
-    void addKnightMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        int[][] directions = {
-                {2, 1},
-                {2, -1},
-                {-2, 1},
-                {-2, -1},
-                {1, 2},
-                {-1, 2},
-                {1, -2},
-                {-1, -2}
+    //the letter used for a piece in board diagrams, upper case for white
+    static char symbol(int piece) {
+        char letter = switch (typeOf(piece)) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
         };
-        for (int[] direction : directions) {
-            int currentRow = myPosition.getRow() + direction[0];
-            int currentCol = myPosition.getColumn() + direction[1];
-
-            ChessPosition newPos = new ChessPosition(currentRow, currentCol);
-            ChessMove newMove = new ChessMove(myPosition, newPos, null);
-
-            if (newPos.getRow() <= 8 && newPos.getRow() >= 1 && newPos.getColumn() <= 8 && newPos.getColumn() >= 1) {
-                if (board.getPiece(newPos) == null || !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                    moveList.add(newMove);
-                }
-            }
-
-        }
+        return colorOf(piece) == 0 ? Character.toUpperCase(letter) : letter;
     }
 
+    /**
+     * Squares a piece attacks from a square; pawns only count their diagonal captures
+     *
+     * @param piece    piece index
+     * @param sq       the square it stands on
+     * @param occupied every occupied square, which blocks sliding pieces
+     */
+    static long attacks(int piece, int sq, long occupied) {
+        return switch (typeOf(piece)) {
+            case KING -> Bitboards.kingAttacks(sq);
+            case QUEEN -> Bitboards.queenAttacks(sq, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(sq, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(sq);
+            case ROOK -> Bitboards.rookAttacks(sq, occupied);
+            case PAWN -> Bitboards.pawnAttacks(teamOf(piece), sq);
+        };
+    }
 
-    void addHorizontalMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        //row move right
-        for (int i = myPosition.getRow() + 1; i <= 8; i++) {
-            ChessPosition newPos = new ChessPosition(i, myPosition.getColumn());
-            ChessMove moveRight = new ChessMove(myPosition, newPos, null);
-            //If the piece is the same color you cant move there
-            if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                break;
-            }
-            //If the piece is a different color, capture, but no more moving that way
-            else if (board.getPiece(newPos) != null && !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                moveList.add(moveRight);
-                break;
-            } else {
-                moveList.add(moveRight);
-            }
-
-        }
-        //row move left
-        for (int i = myPosition.getRow() - 1; i >= 1; i--) {
-            ChessPosition newPos = new ChessPosition(i, myPosition.getColumn());
-            ChessMove moveLeft = new ChessMove(myPosition, newPos, null);
-            //If the piece is the same color you cant move there
-            if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                break;
-            }
-            //If the piece is a different color, capture, but no more moving that way
-            else if (board.getPiece(newPos) != null && !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                moveList.add(moveLeft);
-                break;
-            } else {
-                moveList.add(moveLeft);
-            }
-        }
-
-        //column move up
-        for (int i = myPosition.getColumn() + 1; i <= 8; i++) {
-
-            ChessPosition newPos = new ChessPosition(myPosition.getRow(), i);
-            ChessMove moveUp = new ChessMove(myPosition, newPos, null);
-            //If the piece is the same color you cant move there
-            if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                break;
-            }
-            //If the piece is a different color, capture, but no more moving that way
-            else if (board.getPiece(newPos) != null && !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                moveList.add(moveUp);
-                break;
-            } else {
-                moveList.add(moveUp);
-            }
+    //adds a move from the start square to every square in targets, flagging the captures
+    static void addMoves(int from, long targets, long enemies, MoveList moveList) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moveList.add(Move.encode(from, to, null, (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0));
         }
+    }
 
-        //column move down
-        for (int i = myPosition.getColumn() - 1; i >= 1; i--) {
-            ChessPosition newPos = new ChessPosition(myPosition.getRow(), i);
-            ChessMove moveDown = new ChessMove(myPosition, newPos, null);
-            //If the piece is the same color you cant move there
-            if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                break;
-            }
-            //If the piece is a different color, capture, but no more moving that way
-            else if (board.getPiece(newPos) != null && !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                moveList.add(moveDown);
-                break;
-            } else {
-                moveList.add(moveDown);
+    //adds pawn moves, splitting the ones that reach the last row into the four promotions
+    //and flagging two-square first moves
+    static void addPawnMoves(int from, long targets, long enemies, MoveList moveList) {
+        long promotions = targets & (Bitboards.RANK_1 | Bitboards.RANK_8);
+        //a pawn can only reach the fourth row from the second (or the fifth from the seventh) by a double push
+        long start = Bitboards.bit(from);
+        long doublePushes = targets & ((start & Bitboards.RANK_2) != 0 ? Bitboards.RANK_4
+                : (start & Bitboards.RANK_7) != 0 ? Bitboards.RANK_5 : 0L);
+        addMoves(from, targets & ~promotions & ~doublePushes, enemies, moveList);
+        if (doublePushes != 0) {
+            moveList.add(Move.encode(from, Long.numberOfTrailingZeros(doublePushes), null, Move.DOUBLE_PUSH));
+        }
+        while (promotions != 0) {
+            int to = Long.numberOfTrailingZeros(promotions);
+            promotions &= promotions - 1;
+            int flags = (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+            for (PieceType promotion : PROMOTION_TYPES) {
+                moveList.add(Move.encode(from, to, promotion, flags));
             }
         }
     }
 
-    void addDiagonalMoves(ChessPiece piece, ChessBoard board, ChessPosition myPosition, List<ChessMove> moveList) {
-        //All the diagonal directions that the bishop can move in
-        int[][] directions = {
-                {1, 1},
-                {1, -1},
-                {-1, 1},
-                {-1, -1}
-        };
-        for (int[] direction : directions) {
-            int currentRow = myPosition.getRow() + direction[0];
-            int currentCol = myPosition.getColumn() + direction[1];
-
-            while (currentRow >= 1 && currentRow <= 8 && currentCol >= 1 && currentCol <= 8) {
-                ChessPosition newPos = new ChessPosition(currentRow, currentCol);
-                ChessMove newMove = new ChessMove(myPosition, newPos, null);
-                //If the piece is the same color you cant move there
-                if (board.getPiece(newPos) != null && board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                    break;
-                }
-                //If the piece is a different color, capture, but no more moving that way
-                else if (board.getPiece(newPos) != null && !board.getPiece(newPos).getTeamColor().equals(piece.getTeamColor())) {
-                    moveList.add(newMove);
-                    break;
-                } else {
-                    moveList.add(newMove);
-                }
-                currentRow += direction[0];
-                currentCol += direction[1];
-            }
+    //forward pushes plus diagonal captures for a pawn on sq
+    static long pawnTargets(ChessGame.TeamColor color, int sq, long occupied, long enemies) {
+        long empty = ~occupied;
+        long targets;
+        if (color == ChessGame.TeamColor.WHITE) {
+            long single = (Bitboards.bit(sq) << 8) & empty;
+            targets = single | ((single & (Bitboards.RANK_2 << 8)) << 8) & empty;
+        } else {
+            long single = (Bitboards.bit(sq) >>> 8) & empty;
+            targets = single | ((single & (Bitboards.RANK_7 >>> 8)) >>> 8) & empty;
         }
+        return targets | (Bitboards.pawnAttacks(color, sq) & enemies);
     }
 
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
-     * danger
+     * danger. Castling and en passant depend on the game's history rather than the
+     * board, so they come from ChessGame.validMoves instead
      *
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
 
         ChessPiece piece = board.getPiece(myPosition);
-        List<ChessMove> moveList = new ArrayList<>();
+        MoveList moveList = new MoveList();
 
-        //Bishop
-        if (piece.getPieceType() == PieceType.BISHOP) {
-            addDiagonalMoves(piece, board, myPosition, moveList);
-        }
-        //King
-        if (piece.getPieceType() == PieceType.KING) {
-            addKingMoves(piece, board, myPosition, moveList);
-        }
-
-        //Knight
-        if (piece.getPieceType() == PieceType.KNIGHT) {
-            addKnightMoves(piece, board, myPosition, moveList);
-        }
+        int sq = Bitboards.square(myPosition);
+        long own = board.getOccupancy(piece.getTeamColor());
+        long occupied = board.getOccupied();
+        long enemies = occupied & ~own;
 
-        //Pawn
         if (piece.getPieceType() == PieceType.PAWN) {
-            addPawnMoves(piece, board, myPosition, moveList);
-        }
-
-        //Queen
-        if (piece.getPieceType() == PieceType.QUEEN) {
-            addDiagonalMoves(piece, board, myPosition, moveList);
-            addHorizontalMoves(piece, board, myPosition, moveList);
-        }
-
-        //Rook
-        if (piece.getPieceType() == PieceType.ROOK) {
-            addHorizontalMoves(piece, board, myPosition, moveList);
+            addPawnMoves(sq, pawnTargets(piece.getTeamColor(), sq, occupied, enemies), enemies, moveList);
+        } else {
+            //You can't move on top of your own team
+            addMoves(sq, attacks(piece.index(), sq, occupied) & ~own, enemies, moveList);
         }
 
-        return moveList;
+        return moveList.toChessMoves();
     }
 }
@@ -9,14 +9,43 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
-    private int row;
-    private int col;
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                SQUARES[(row - 1) * 8 + (col - 1)] = new ChessPosition(row, col);
+            }
+        }
+    }
+
+    private final int row;
+    private final int col;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square on the board, so hot code doesn't allocate positions
+     *
+     * @param row 1-8, 1 codes for the bottom row
+     * @param col 1-8, 1 codes for the left column
+     * @return the canonical position for that square
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Position is off the board: " + row + "," + col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    //the canonical position for a square index
+    static ChessPosition ofSquare(int sq) {
+        return SQUARES[sq];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,208 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation: the piece placement from row 8 down to row 1,
+ * the team to move, the castling rights, the en passant square and the two move clocks, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * Both directions walk the string one character at a time, so parsing makes no substrings and
+ * printing fills one StringBuilder.
+ */
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    //the letter for each piece index, white's in upper case
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+    //the letter for each castling right bit, lowest bit first
+    private static final String CASTLING_LETTERS = "KQkq";
+
+    private Fen() {
+    }
+
+    /**
+     * Reads a board from the piece placement field; anything after the first space is ignored
+     */
+    static ChessBoard parseBoard(String fen) {
+        ChessBoard board = new ChessBoard();
+        parsePlacement(fen, board);
+        return board;
+    }
+
+    /**
+     * Reads a whole game position. The two clocks may be left off, in which case the halfmove
+     * clock starts at 0 and the game at move 1.
+     */
+    static ChessGame parseGame(String fen) {
+        ChessBoard board = new ChessBoard();
+        int i = parsePlacement(fen, board);
+
+        i = skipSpace(fen, i);
+        ChessGame.TeamColor turn = switch (charAt(fen, i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw bad(fen, "the team to move must be w or b");
+        };
+
+        i = skipSpace(fen, i);
+        int rights = 0;
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            while (i < fen.length() && fen.charAt(i) != ' ') {
+                int bit = CASTLING_LETTERS.indexOf(fen.charAt(i++));
+                if (bit < 0) {
+                    throw bad(fen, "castling rights must be some of KQkq or -");
+                }
+                rights |= 1 << bit;
+            }
+        }
+
+        i = skipSpace(fen, i);
+        int enPassant = ChessGame.NO_EN_PASSANT;
+        if (charAt(fen, i) == '-') {
+            i++;
+        } else {
+            enPassant = parseSquare(fen, i);
+            i += 2;
+            int row = turn == ChessGame.TeamColor.WHITE ? 6 : 3;
+            if (Bitboards.row(enPassant) != row) {
+                throw bad(fen, "the en passant square must be on row " + row);
+            }
+        }
+
+        int halfmoves = 0;
+        int fullmoves = 1;
+        if (i < fen.length()) {
+            i = skipSpace(fen, i);
+            int start = i;
+            while (i < fen.length() && Character.isDigit(fen.charAt(i))) {
+                halfmoves = halfmoves * 10 + fen.charAt(i++) - '0';
+            }
+            i = skipSpace(fen, i);
+            fullmoves = 0;
+            while (i < fen.length() && Character.isDigit(fen.charAt(i))) {
+                fullmoves = fullmoves * 10 + fen.charAt(i++) - '0';
+            }
+            if (i == start || fullmoves < 1 || i < fen.length()) {
+                throw bad(fen, "the clocks must be two numbers, the second at least 1");
+            }
+        }
+        //the game drops rights and en passant squares the position can't use, as it does during play
+        return new ChessGame(board, turn, rights, enPassant, halfmoves, fullmoves);
+    }
+
+    //reads the placement field into an empty board, returning the index just after it
+    private static int parsePlacement(String fen, ChessBoard board) {
+        int row = 8;
+        int col = 1;
+        int i = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw bad(fen, "each row must cover 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int piece = PIECE_LETTERS.indexOf(c);
+                if (piece < 0 || col > 8) {
+                    throw bad(fen, "unexpected '" + c + "' in the piece placement");
+                }
+                board.putPiece(Bitboards.square(row, col), piece);
+                col++;
+            }
+            if (col > 9) {
+                throw bad(fen, "each row must cover 8 squares");
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw bad(fen, "the piece placement must cover 8 rows of 8 squares");
+        }
+        return i;
+    }
+
+    private static int parseSquare(String fen, int i) {
+        int sq = San.parseSquare(fen, i);
+        if (sq < 0) {
+            throw bad(fen, "bad square");
+        }
+        return sq;
+    }
+
+    private static int skipSpace(String fen, int i) {
+        if (charAt(fen, i) != ' ') {
+            throw bad(fen, "expected a space between fields");
+        }
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static char charAt(String fen, int i) {
+        if (i >= fen.length()) {
+            throw bad(fen, "it ends too soon");
+        }
+        return fen.charAt(i);
+    }
+
+    private static IllegalArgumentException bad(String fen, String reason) {
+        return new IllegalArgumentException("Bad FEN \"" + fen + "\": " + reason);
+    }
+
+    /**
+     * Writes the piece placement field
+     */
+    static void appendPlacement(ChessBoard board, StringBuilder fen) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int piece = board.pieceAt(Bitboards.square(row, col));
+                if (piece == ChessBoard.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_LETTERS.charAt(piece));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Writes all six fields of a game position
+     */
+    static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(game.currentBoard, fen);
+        fen.append(game.currentTeamColor == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        if (game.castlingRights == 0) {
+            fen.append('-');
+        }
+        for (int bit = 0; bit < 4; bit++) {
+            if ((game.castlingRights & (1 << bit)) != 0) {
+                fen.append(CASTLING_LETTERS.charAt(bit));
+            }
+        }
+        fen.append(' ');
+        if (game.enPassantSquare == ChessGame.NO_EN_PASSANT) {
+            fen.append('-');
+        } else {
+            San.appendSquare(fen, game.enPassantSquare);
+        }
+        fen.append(' ').append(game.halfmoveClock).append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+}
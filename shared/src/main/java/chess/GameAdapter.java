@@ -0,0 +1,113 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writes a game as its fields, with the board as {@link BoardAdapter} writes it and the history
+ * as just the undo records of the moves played, not the unused capacity of the arrays behind
+ * it. The position keys that go with the history are worked out again when a game is read, by
+ * taking its moves back on a copy.
+ * <p>
+ * Fields a game wasn't written with keep the values a game set up from its board gets, so
+ * JSON from before castling and the history were kept still reads.
+ */
+final class GameAdapter extends TypeAdapter<ChessGame> {
+
+    private static final BoardAdapter BOARD = new BoardAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("currentTeamColor").value(game.currentTeamColor.name());
+        out.name("currentBoard");
+        BOARD.write(out, game.currentBoard);
+        out.name("castlingRights").value(game.castlingRights);
+        out.name("enPassantSquare").value(game.enPassantSquare);
+        out.name("halfmoveClock").value(game.halfmoveClock);
+        out.name("startingPly").value(game.startingPly);
+        out.name("history").beginArray();
+        for (int ply = 0; ply < game.historySize; ply++) {
+            out.value(game.history[ply]);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        ChessBoard board = null;
+        int castlingRights = Castling.ALL;
+        int enPassantSquare = ChessGame.NO_EN_PASSANT;
+        int halfmoveClock = 0;
+        int startingPly = -1;
+        long[] history = new long[0];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "currentTeamColor" -> turn = readTeam(in);
+                case "currentBoard" -> board = BOARD.read(in);
+                case "castlingRights" -> castlingRights = in.nextInt();
+                case "enPassantSquare" -> enPassantSquare = in.nextInt();
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "startingPly" -> startingPly = in.nextInt();
+                case "history" -> history = readHistory(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (board == null) {
+            throw new JsonParseException("Game has no board");
+        }
+
+        ChessGame game = new ChessGame(board, turn, castlingRights, enPassantSquare, halfmoveClock, 1);
+        if (startingPly >= 0) {
+            game.startingPly = startingPly;
+        }
+        try {
+            game.restoreHistory(history);
+        } catch (RuntimeException e) {
+            throw new JsonParseException("Game history can't be taken back from its board", e);
+        }
+        return game;
+    }
+
+    private static ChessGame.TeamColor readTeam(JsonReader in) throws IOException {
+        String name = in.nextString();
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            if (team.name().equals(name)) {
+                return team;
+            }
+        }
+        throw new JsonParseException("Game has an unknown team to move: " + name);
+    }
+
+    private static long[] readHistory(JsonReader in) throws IOException {
+        long[] history = new long[16];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == history.length) {
+                history = Arrays.copyOf(history, size * 2);
+            }
+            history[size++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(history, size);
+    }
+}
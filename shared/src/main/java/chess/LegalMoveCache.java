@@ -0,0 +1,60 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A small direct-mapped cache of legal moves and status, keyed by a position's Zobrist key.
+ * <p>
+ * Each key maps to one slot, and a new position simply replaces whatever was there, so the
+ * cache never grows. A game keeps one so that validating a move, reporting the status after
+ * it and highlighting moves for a client all share a single generation pass.
+ */
+final class LegalMoveCache {
+
+    private static final int SIZE = 16;
+
+    private final long[] keys = new long[SIZE];
+    private final MoveList[] moves = new MoveList[SIZE];
+    private final ChessGame.GameStatus[] statuses = new ChessGame.GameStatus[SIZE];
+
+    private static int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & (SIZE - 1);
+    }
+
+    //the cached legal moves for a key, or null if they haven't been generated
+    MoveList moves(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? moves[slot] : null;
+    }
+
+    //the cached status for a key, or null if it hasn't been worked out
+    ChessGame.GameStatus status(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? statuses[slot] : null;
+    }
+
+    void putMoves(long key, MoveList moveList) {
+        claim(key);
+        moves[slot(key)] = moveList;
+    }
+
+    void putStatus(long key, ChessGame.GameStatus status) {
+        claim(key);
+        statuses[slot(key)] = status;
+    }
+
+    void clear() {
+        Arrays.fill(moves, null);
+        Arrays.fill(statuses, null);
+    }
+
+    //empties the key's slot if it belongs to another position
+    private void claim(long key) {
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            moves[slot] = null;
+            statuses[slot] = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Packs a move into a single int so move generation and search never box moves.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square, bits 12-14 the promotion
+ * piece (its PieceType ordinal + 1, or 0 for none) and the bits above that are flags.
+ * A {@link ChessMove} is only built at the API edge with {@link #toChessMove(int)}.
+ */
+public final class Move {
+
+    /**
+     * Never a real move, since the start and end squares are the same
+     */
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    //a pawn's two-square first move, which can make the square it skipped an en passant target
+    public static final int DOUBLE_PUSH = 1 << 16;
+    //a pawn capture onto the en passant square; the captured pawn is beside the start square
+    public static final int EN_PASSANT = 1 << 17;
+    //the king's two-square castling move; the rook is moved along with it
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 7;
+        return promotionBits == 0 ? null : TYPES[promotionBits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @return the move without its flags, which is all a ChessMove can describe
+     */
+    public static int squaresAndPromotion(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * @return the canonical ChessMove for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    /**
+     * Packs a ChessMove without flags; compare it with {@link #squaresAndPromotion(int)}
+     */
+    public static int fromChessMove(ChessMove move) {
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+}
@@ -0,0 +1,217 @@
+package chess;
+
+/**
+ * Generates only legal moves, so nothing has to be tried on the board and tested for check.
+ * <p>
+ * The pieces giving check and the pieces pinned to their own king are worked out once per
+ * position. From that, every piece's targets are narrowed with masks: the king avoids
+ * attacked squares, pinned pieces stay on the line through their king, and during a single
+ * check other pieces must capture the checker or block it. In double check only the king moves.
+ * <p>
+ * Castling and en passant depend on the game rather than the board, so the caller passes in
+ * the castling rights and en passant square it keeps.
+ */
+public final class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the legal moves of the team's pieces standing on the squares in fromMask
+     *
+     * @param board           the position
+     * @param color           the team to move
+     * @param castlingRights  the castling right bits still held (see {@link Castling})
+     * @param enPassantSquare the square a pawn can capture onto en passant, or -1 if there isn't one
+     * @param fromMask        the squares whose pieces should be moved (-1 for all of them)
+     * @param moveList        where the packed moves are added
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor color, int castlingRights, int enPassantSquare,
+                                long fromMask, MoveList moveList) {
+        generate(board, color, castlingRights, enPassantSquare, fromMask, -1L, moveList, false);
+    }
+
+    /**
+     * Adds only the legal captures (including en passant and capturing promotions), for searches
+     * that just want to settle the exchanges on the board
+     *
+     * @param board           the position
+     * @param color           the team to move
+     * @param enPassantSquare the en passant square, or -1 if there isn't one
+     * @param moveList        where the packed moves are added
+     */
+    public static void generateCaptures(ChessBoard board, ChessGame.TeamColor color, int enPassantSquare,
+                                        MoveList moveList) {
+        long enemies = board.getOccupied() & ~board.getOccupancy(color);
+        generate(board, color, 0, enPassantSquare, -1L, enemies, moveList, false);
+    }
+
+    /**
+     * Checks whether a team has any legal move, stopping as soon as one is found
+     *
+     * @param board           the position
+     * @param color           the team to move
+     * @param castlingRights  the castling right bits still held
+     * @param enPassantSquare the en passant square, or -1 if there isn't one
+     * @return true unless the team is checkmated or stalemated
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                       int enPassantSquare) {
+        return generate(board, color, castlingRights, enPassantSquare, -1L, -1L, new MoveList(8), true);
+    }
+
+    //returns whether any move was added; with stopAtFirst set it returns right after the first piece that can move.
+    //toMask limits the end squares, which callers use to ask for captures only
+    private static boolean generate(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                    int enPassantSquare, long fromMask, long toMask, MoveList moveList,
+                                    boolean stopAtFirst) {
+        ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = board.getOccupancy(color);
+        long occupied = board.getOccupied();
+        long enemies = occupied & ~own;
+
+        int king = board.kingSquare(color);
+        long checkMask = -1L;
+        long pinned = 0L;
+        if (king < 64) {
+            long checkers = board.attackersOf(king, enemy, occupied);
+            if ((fromMask & Bitboards.bit(king)) != 0) {
+                addKingMoves(board, enemy, king, own, occupied, enemies, toMask, moveList);
+                if (checkers == 0 && castlingRights != 0) {
+                    addCastles(board, color, enemy, king, castlingRights, occupied, moveList);
+                }
+                if (stopAtFirst && !moveList.isEmpty()) {
+                    return true;
+                }
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return !moveList.isEmpty();
+            }
+            if (checkers != 0) {
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | Bitboards.between(king, checker);
+            }
+            pinned = pinnedPieces(board, enemy, king, own, occupied);
+        }
+
+        long movers = own & fromMask;
+        if (king < 64) {
+            movers &= ~Bitboards.bit(king);
+        }
+        while (movers != 0) {
+            int sq = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            int piece = board.pieceAt(sq);
+            long targets = ChessPiece.typeOf(piece) == ChessPiece.PieceType.PAWN
+                    ? ChessPiece.pawnTargets(color, sq, occupied, enemies)
+                    : ChessPiece.attacks(piece, sq, occupied) & ~own;
+            targets &= checkMask & toMask;
+            if ((pinned & Bitboards.bit(sq)) != 0) {
+                targets &= Bitboards.line(king, sq);
+            }
+            if (targets == 0) {
+                continue;
+            }
+            if (ChessPiece.typeOf(piece) == ChessPiece.PieceType.PAWN) {
+                ChessPiece.addPawnMoves(sq, targets, enemies, moveList);
+            } else {
+                ChessPiece.addMoves(sq, targets, enemies, moveList);
+            }
+            if (stopAtFirst) {
+                return true;
+            }
+        }
+        if (enPassantSquare >= 0) {
+            addEnPassant(board, color, enemy, king, enPassantSquare, own & fromMask, occupied, moveList);
+        }
+        return !moveList.isEmpty();
+    }
+
+    //the king may step anywhere not attacked once it has moved off its square (so sliders see through it)
+    private static void addKingMoves(ChessBoard board, ChessGame.TeamColor enemy, int king, long own,
+                                     long occupied, long enemies, long toMask, MoveList moveList) {
+        long targets = Bitboards.kingAttacks(king) & ~own & toMask;
+        long withoutKing = occupied & ~Bitboards.bit(king);
+        long safe = 0L;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.attackersOf(to, enemy, withoutKing) == 0) {
+                safe |= Bitboards.bit(to);
+            }
+        }
+        ChessPiece.addMoves(king, safe, enemies, moveList);
+    }
+
+    //castling needs the right, the rook still on its corner, nothing between the two, and no attack on
+    //the squares the king crosses; the caller has already made sure the king isn't in check
+    private static void addCastles(ChessBoard board, ChessGame.TeamColor color, ChessGame.TeamColor enemy, int king,
+                                   int castlingRights, long occupied, MoveList moveList) {
+        int start = color == ChessGame.TeamColor.WHITE ? Castling.WHITE_KING_START : Castling.BLACK_KING_START;
+        if (king != start) {
+            return;
+        }
+        int rook = ChessPiece.index(color, ChessPiece.PieceType.ROOK);
+        if ((castlingRights & Castling.kingside(color)) != 0) {
+            addCastle(board, enemy, king, king + 2, rook, occupied, moveList);
+        }
+        if ((castlingRights & Castling.queenside(color)) != 0) {
+            addCastle(board, enemy, king, king - 2, rook, occupied, moveList);
+        }
+    }
+
+    private static void addCastle(ChessBoard board, ChessGame.TeamColor enemy, int king, int kingTo, int rook,
+                                  long occupied, MoveList moveList) {
+        int rookFrom = Castling.rookFrom(kingTo);
+        if (board.pieceAt(rookFrom) != rook || (Bitboards.between(king, rookFrom) & occupied) != 0) {
+            return;
+        }
+        if (board.attackersOf(Castling.rookTo(kingTo), enemy, occupied) != 0
+                || board.attackersOf(kingTo, enemy, occupied) != 0) {
+            return;
+        }
+        moveList.add(Move.encode(king, kingTo, null, Move.CASTLE));
+    }
+
+    //en passant removes two pawns from one row, which can uncover an attack the pin masks don't see,
+    //so each capture is checked by looking out from the king with the board as it would be afterward
+    private static void addEnPassant(ChessBoard board, ChessGame.TeamColor color, ChessGame.TeamColor enemy, int king,
+                                     int enPassantSquare, long movers, long occupied, MoveList moveList) {
+        long capturers = Bitboards.pawnAttacks(enemy, enPassantSquare)
+                & board.getPieces(color, ChessPiece.PieceType.PAWN) & movers;
+        int enemyPawn = ChessPiece.index(enemy, ChessPiece.PieceType.PAWN);
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            int captured = (from & ~7) | (enPassantSquare & 7);
+            if (board.pieceAt(captured) != enemyPawn) {
+                continue;
+            }
+            if (king < 64) {
+                long after = (occupied ^ Bitboards.bit(from) ^ Bitboards.bit(captured)) | Bitboards.bit(enPassantSquare);
+                if ((board.attackersOf(king, enemy, after) & ~Bitboards.bit(captured)) != 0) {
+                    continue;
+                }
+            }
+            moveList.add(Move.encode(from, enPassantSquare, null, Move.CAPTURE | Move.EN_PASSANT));
+        }
+    }
+
+    //own pieces that are the only thing between an enemy slider and the king
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor enemy, int king, long own, long occupied) {
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0L) & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0L) & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,76 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of packed moves (see {@link Move}) backed by an int array, so it can be
+ * cleared and refilled without allocating.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Finds the generated move with the same squares and promotion as a ChessMove
+     *
+     * @return the packed move with its flags, or Move.NONE if there isn't one
+     */
+    public int find(ChessMove move) {
+        int wanted = Move.fromChessMove(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.squaresAndPromotion(moves[i]) == wanted) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return the moves converted to ChessMoves, for callers outside the engine
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> moveList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            moveList.add(Move.toChessMove(moves[i]));
+        }
+        return moveList;
+    }
+}
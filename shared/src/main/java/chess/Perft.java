@@ -0,0 +1,48 @@
+package chess;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. Comparing the counts with
+ * published values is the standard way to check a move generator, and the node rate makes a
+ * repeatable speed measurement.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly depth moves from the game's current position.
+     * The game is played forward and taken back in place, so it ends where it started.
+     *
+     * @param game  the starting position
+     * @param depth how many moves deep to count
+     * @return number of leaf nodes
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.generateMoves(moves);
+        //the moves are legal, so the last ply doesn't need to be played out
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            long undo = game.makeMoveUnchecked(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.unmakeMove(undo);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+/**
+ * Middlegame and endgame values for each kind of piece on each square, in centipawns, with the
+ * piece's material value included. Black's entries are white's mirrored top to bottom and
+ * negated, so a board's score is just the sum of the entries for its pieces, which the board
+ * keeps up to date as pieces are put and removed.
+ * <p>
+ * The material values and the tapering between them are PeSTO's, by Ronald Friederich, as
+ * given on the Chess Programming Wiki: a middlegame and an endgame value for each piece, and a
+ * phase that counts the minor and major pieces left (knight and bishop 1, rook 2, queen 4, so
+ * 24 at the start), with the score sliding from the middlegame value to the endgame value as it
+ * falls. The square bonuses added to them are Tomasz Michniewski's "simplified evaluation
+ * function" tables, with his two king tables used one per phase and an endgame pawn table of
+ * our own that pays more the further a pawn gets.
+ */
+final class PieceSquareTables {
+
+    static final int MAX_PHASE = 24;
+
+    //indexed by [piece index][square]
+    static final int[][] MIDDLEGAME = new int[ChessPiece.KINDS][64];
+    static final int[][] ENDGAME = new int[ChessPiece.KINDS][64];
+    //indexed by piece index
+    static final int[] PHASE = new int[ChessPiece.KINDS];
+
+    //material by PieceType ordinal (KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN)
+    private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+
+    //the tables below are drawn as white sees the board: row 8 first, a-file on the left
+
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    //by PieceType ordinal
+    private static final int[][] MIDDLEGAME_SQUARES = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+    private static final int[][] ENDGAME_SQUARES = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            int white = type;
+            int black = 6 + type;
+            for (int sq = 0; sq < 64; sq++) {
+                //the drawn tables start at a8, which is square 56; flipping the row bits of sq lines them up
+                int drawn = sq ^ 56;
+                MIDDLEGAME[white][sq] = MIDDLEGAME_VALUES[type] + MIDDLEGAME_SQUARES[type][drawn];
+                ENDGAME[white][sq] = ENDGAME_VALUES[type] + ENDGAME_SQUARES[type][drawn];
+                //black's square sq is white's square sq ^ 56 seen from the other side
+                MIDDLEGAME[black][sq] = -(MIDDLEGAME_VALUES[type] + MIDDLEGAME_SQUARES[type][sq]);
+                ENDGAME[black][sq] = -(ENDGAME_VALUES[type] + ENDGAME_SQUARES[type][sq]);
+            }
+            PHASE[white] = PHASE_WEIGHTS[type];
+            PHASE[black] = PHASE_WEIGHTS[type];
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+}
@@ -0,0 +1,215 @@
+package chess;
+
+/**
+ * Reads and writes Standard Algebraic Notation, the form moves take in printed games and PGN:
+ * {@code e4}, {@code Nbxd2+}, {@code exd6}, {@code e8=Q#}, {@code O-O-O}.
+ * <p>
+ * SAN only names as much of the start square as it takes to tell the move apart from the
+ * other legal moves, so both directions work from the game's legal move list, which is
+ * generated once per position and cached by the game.
+ */
+final class San {
+
+    //the letter for each PieceType by ordinal; pawns go without one
+    private static final String PIECE_LETTERS = "KQBNR";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private San() {
+    }
+
+    /**
+     * Writes a move in SAN, with + or # when it gives check or mate
+     *
+     * @throws IllegalArgumentException if the move isn't legal in the game
+     */
+    static String format(ChessGame game, ChessMove chessMove) {
+        MoveList legal = game.legalMoves(game.currentTeamColor);
+        int move = legal.find(chessMove);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException(chessMove.toUci() + " isn't a legal move here");
+        }
+        ChessBoard board = game.currentBoard;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = board.pieceAt(from);
+        StringBuilder san = new StringBuilder(8);
+        if (Move.isCastle(move)) {
+            san.append(Bitboards.column(to) == 7 ? "O-O" : "O-O-O");
+        } else {
+            ChessPiece.PieceType type = ChessPiece.typeOf(piece);
+            if (type == ChessPiece.PieceType.PAWN) {
+                if (Move.isCapture(move)) {
+                    san.append((char) ('a' + (from & 7))).append('x');
+                }
+            } else {
+                san.append(PIECE_LETTERS.charAt(type.ordinal()));
+                appendDisambiguation(board, legal, move, san);
+                if (Move.isCapture(move)) {
+                    san.append('x');
+                }
+            }
+            appendSquare(san, to);
+            if (Move.promotion(move) != null) {
+                san.append('=').append(PIECE_LETTERS.charAt(Move.promotion(move).ordinal()));
+            }
+        }
+        long undo = game.makeMoveUnchecked(move);
+        ChessGame.GameStatus status = game.status(game.currentTeamColor);
+        game.unmakeMove(undo);
+        if (status == ChessGame.GameStatus.CHECKMATE) {
+            san.append('#');
+        } else if (status == ChessGame.GameStatus.CHECK) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    //adds the start column, row or both when another piece of the same kind can reach the same square
+    private static void appendDisambiguation(ChessBoard board, MoveList legal, int move, StringBuilder san) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean ambiguous = false;
+        boolean sameColumn = false;
+        boolean sameRow = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = Move.from(legal.get(i));
+            if (other != from && Move.to(legal.get(i)) == to && board.pieceAt(other) == board.pieceAt(from)) {
+                ambiguous = true;
+                sameColumn |= (other & 7) == (from & 7);
+                sameRow |= (other >>> 3) == (from >>> 3);
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameColumn) {
+            san.append((char) ('a' + (from & 7)));
+        } else if (!sameRow) {
+            san.append((char) ('1' + (from >>> 3)));
+        } else {
+            appendSquare(san, from);
+        }
+    }
+
+    /**
+     * Finds the legal move a SAN string names. Check, mate and annotation marks on the end are
+     * ignored, castling may be written with zeros, and the = before a promotion may be left out.
+     *
+     * @throws IllegalArgumentException if the text doesn't name exactly one legal move
+     */
+    static ChessMove parse(ChessGame game, String san) {
+        MoveList legal = game.legalMoves(game.currentTeamColor);
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (isCastle(san, end, 3) || isCastle(san, end, 5)) {
+            int column = end == 3 ? 7 : 3;
+            for (int i = 0; i < legal.size(); i++) {
+                int move = legal.get(i);
+                if (Move.isCastle(move) && Bitboards.column(Move.to(move)) == column) {
+                    return Move.toChessMove(move);
+                }
+            }
+            throw bad(san, "castling isn't legal here");
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (end > 0 && PIECE_LETTERS.indexOf(san.charAt(0)) >= 0) {
+            type = TYPES[PIECE_LETTERS.indexOf(san.charAt(0))];
+            start = 1;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end > 2 && PIECE_LETTERS.indexOf(san.charAt(end - 1)) > 0) {
+            promotion = TYPES[PIECE_LETTERS.indexOf(san.charAt(end - 1))];
+            end--;
+            if (san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end - start < 2) {
+            throw bad(san, "there's no end square");
+        }
+        int to = parseSquare(san, end - 2);
+        if (to < 0) {
+            throw bad(san, "there's no end square");
+        }
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromColumn = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '1';
+            } else if (c != 'x') {
+                throw bad(san, "unexpected '" + c + "'");
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.isCastle(move) || Move.promotion(move) != promotion
+                    || ChessPiece.typeOf(game.currentBoard.pieceAt(from)) != type
+                    || (fromColumn >= 0 && (from & 7) != fromColumn) || (fromRow >= 0 && (from >>> 3) != fromRow)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw bad(san, "more than one legal move matches");
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw bad(san, "no legal move matches");
+        }
+        return Move.toChessMove(found);
+    }
+
+    //whether the text up to end is O-O (length 3) or O-O-O (length 5), written with letters or zeros
+    private static boolean isCastle(String san, int end, int length) {
+        if (end != length) {
+            return false;
+        }
+        char o = san.charAt(0);
+        if (o != 'O' && o != '0') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (san.charAt(i) != (i % 2 == 1 ? '-' : o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IllegalArgumentException bad(String san, String reason) {
+        return new IllegalArgumentException("Bad move \"" + san + "\": " + reason);
+    }
+
+    /**
+     * Writes a square's name, like e4
+     */
+    static void appendSquare(StringBuilder text, int sq) {
+        text.append((char) ('a' + (sq & 7))).append((char) ('1' + (sq >>> 3)));
+    }
+
+    /**
+     * Reads a square's name starting at index i
+     *
+     * @return the square index, or -1 if there isn't a square name there
+     */
+    static int parseSquare(String text, int i) {
+        if (i < 0 || i + 1 >= text.length()) {
+            return -1;
+        }
+        char column = text.charAt(i);
+        char row = text.charAt(i + 1);
+        if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+            return -1;
+        }
+        return (row - '1') * 8 + (column - 'a');
+    }
+}
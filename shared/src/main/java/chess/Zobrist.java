@@ -0,0 +1,50 @@
+package chess;
+
+/**
+ * Random numbers for Zobrist hashing. A position's key is the XOR of one number per
+ * (piece kind, square) pair on the board plus one for black to move, one for the castling
+ * rights and one for the en passant file, so moving a piece only has to XOR the squares it
+ * leaves and enters.
+ * <p>
+ * The numbers come from a fixed-seed generator so keys are the same on every machine
+ * and can be stored.
+ */
+final class Zobrist {
+
+    //indexed by [piece index][square]
+    static final long[][] PIECE_SQUARE = new long[ChessPiece.KINDS][64];
+    static final long BLACK_TO_MOVE;
+    //indexed by the four castling right bits, so CASTLING[0] is 0 and no rights change nothing
+    static final long[] CASTLING = new long[16];
+    //indexed by the file (0-7) of the en passant square
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int piece = 0; piece < ChessPiece.KINDS; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[piece][sq] = nextRandom();
+            }
+        }
+        BLACK_TO_MOVE = nextRandom();
+        for (int rights = 1; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = nextRandom();
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = nextRandom();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    //splitmix64
+    private static long nextRandom() {
+        seed += 0x9E3779B97F4A7C15L;
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
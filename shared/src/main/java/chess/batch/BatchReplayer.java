@@ -0,0 +1,164 @@
+package chess.batch;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.pgn.PgnMoveText;
+import chess.pgn.PgnReader;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Checks and replays many games at once on a fork-join pool, for offline jobs like importing a
+ * tournament archive or re-checking stored games after a rules change.
+ * <p>
+ * Every game is played through {@link ChessGame#makeMove} on its own ChessGame, so games share
+ * nothing and each one is a task for the pool. Games are handed to the pool as they are read
+ * and their results collected in the order the games came in, at most {@link #IN_FLIGHT}
+ * at a time, so a stream of any length replays in bounded memory while the pool stays busy.
+ */
+public final class BatchReplayer implements AutoCloseable {
+
+    //games handed to the pool before the oldest result is waited for
+    public static final int IN_FLIGHT = 4096;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param threads how many games to replay at once
+     */
+    public BatchReplayer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one replay thread");
+        }
+        pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+    }
+
+    public int threads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Replays one game on the calling thread. Anything wrong with the record, down to a missing
+     * move list, comes back as a failed result rather than an exception, so one bad game can't
+     * stop a batch.
+     *
+     * @param record the game
+     * @return the final position and status, or where and why the game went wrong
+     */
+    public static ReplayResult replay(GameRecord record) {
+        ChessGame game;
+        try {
+            game = record.startFen() == null ? new ChessGame() : ChessGame.fromFen(record.startFen());
+        } catch (RuntimeException e) {
+            return new ReplayResult(record.id(), null, null, -1, reason(e));
+        }
+        List<String> moves = record.moves();
+        if (moves == null) {
+            return new ReplayResult(record.id(), game, game.evaluateStatus(), -1, "Game has no move list");
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            try {
+                game.makeMove(ChessMove.fromNotation(moves.get(i), game));
+            } catch (InvalidMoveException e) {
+                return new ReplayResult(record.id(), game, game.evaluateStatus(), i, moves.get(i) + " isn't a legal move");
+            } catch (RuntimeException e) {
+                return new ReplayResult(record.id(), game, game.evaluateStatus(), i, reason(e));
+            }
+        }
+        return new ReplayResult(record.id(), game, game.evaluateStatus(), -1, null);
+    }
+
+    //an exception's message, or its class when it has none, so a failed result always says why
+    private static String reason(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    /**
+     * Replays a list of games
+     *
+     * @return a result for each game, in the same order
+     */
+    public List<ReplayResult> replayAll(List<GameRecord> games) {
+        List<ReplayResult> results = new ArrayList<>(games.size());
+        replayAll(games.iterator(), results::add);
+        return results;
+    }
+
+    /**
+     * Replays games as they come from an iterator, passing each result on in the order the
+     * games came in. Results are passed on from the calling thread.
+     *
+     * @param games   the games, read on the calling thread
+     * @param results receives each game's result
+     * @return how many games were replayed
+     */
+    public long replayAll(Iterator<GameRecord> games, Consumer<ReplayResult> results) {
+        Pipeline pipeline = new Pipeline(results);
+        while (games.hasNext()) {
+            pipeline.submit(games.next());
+        }
+        return pipeline.finish();
+    }
+
+    /**
+     * Replays every game in a PGN stream. Games are read on the calling thread and numbered from
+     * 1 in the order they appear, which becomes their id.
+     *
+     * @param reader  the PGN games
+     * @param results receives each game's result, in file order
+     * @return how many games were replayed
+     * @throws IOException if the stream can't be read
+     */
+    public long replayPgn(PgnReader reader, Consumer<ReplayResult> results) throws IOException {
+        Pipeline pipeline = new Pipeline(results);
+        PgnMoveText moveText;
+        while ((moveText = reader.nextMoveText()) != null) {
+            String id = String.valueOf(reader.gamesRead());
+            pipeline.submit(new GameRecord(id, moveText.tags().get("FEN"), moveText.moves()));
+        }
+        return pipeline.finish();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    //hands games to the pool and passes results on in order, keeping at most IN_FLIGHT games outstanding
+    private final class Pipeline {
+        private final Consumer<ReplayResult> results;
+        private final ArrayDeque<ForkJoinTask<ReplayResult>> pending = new ArrayDeque<>(IN_FLIGHT);
+        private long replayed;
+
+        Pipeline(Consumer<ReplayResult> results) {
+            this.results = results;
+        }
+
+        void submit(GameRecord record) {
+            pending.addLast(pool.submit(() -> replay(record)));
+            if (pending.size() >= IN_FLIGHT) {
+                passOnOldest();
+            }
+        }
+
+        long finish() {
+            while (!pending.isEmpty()) {
+                passOnOldest();
+            }
+            return replayed;
+        }
+
+        private void passOnOldest() {
+            results.accept(pending.pollFirst().join());
+            replayed++;
+        }
+    }
+}
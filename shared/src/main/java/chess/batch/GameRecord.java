@@ -0,0 +1,14 @@
+package chess.batch;
+
+import java.util.List;
+
+/**
+ * A game to check, as it might come out of an archive or the database: a starting position and
+ * the moves played from it.
+ *
+ * @param id       whatever the caller uses to tell games apart; it is passed through to the result
+ * @param startFen the position the moves start from, or null for the usual starting position
+ * @param moves    the moves in SAN (Nf3) or UCI (g1f3); the two can be mixed
+ */
+public record GameRecord(String id, String startFen, List<String> moves) {
+}
@@ -0,0 +1,22 @@
+package chess.batch;
+
+import chess.ChessGame;
+
+/**
+ * What replaying one game found.
+ *
+ * @param id          the game's id from its {@link GameRecord}
+ * @param game        the game after its last legal move, or null if its starting position couldn't be read
+ * @param status      the status of that final position, or null along with game
+ * @param illegalMove the index of the first move that couldn't be played, or -1 if every move was legal
+ * @param error       why the game failed, or null if it didn't
+ */
+public record ReplayResult(String id, ChessGame game, ChessGame.GameStatus status, int illegalMove, String error) {
+
+    /**
+     * @return true if the starting position was valid and every move was legal
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+}
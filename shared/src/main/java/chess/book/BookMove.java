@@ -0,0 +1,12 @@
+package chess.book;
+
+import chess.ChessMove;
+
+/**
+ * A move an opening book gives for a position
+ *
+ * @param move   the move
+ * @param weight how often the book plays it compared to the position's other moves
+ */
+public record BookMove(ChessMove move, int weight) {
+}
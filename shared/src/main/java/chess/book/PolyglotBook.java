@@ -0,0 +1,194 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book in Polyglot's .bin format, read straight from a memory-mapped file.
+ * <p>
+ * The file is a list of {@value #ENTRY_BYTES}-byte big-endian entries sorted by key: the
+ * position's {@link PolyglotKeys key} (8 bytes), a move (2 bytes), a weight (2 bytes) and a
+ * learning value (4 bytes, unused here). A lookup binary-searches the mapping for the first
+ * entry with the position's key and reads on from there, so the book is never copied onto the
+ * heap and every book open on the same file, in this process or another, shares the one copy
+ * the operating system caches.
+ * <p>
+ * A book is safe to use from any number of threads at once.
+ */
+public final class PolyglotBook {
+
+    public static final int ENTRY_BYTES = 16;
+
+    //Polyglot's promotion field counts knight, bishop, rook, queen from 1
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private final ByteBuffer entries;
+    private final int size;
+    private final PolyglotKeys keys;
+
+    private PolyglotBook(ByteBuffer entries, PolyglotKeys keys) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps a standard book file, keyed with {@link PolyglotKeys#STANDARD}
+     *
+     * @param file the .bin book
+     * @throws IOException              if the file can't be opened or mapped
+     * @throws IllegalArgumentException if the file isn't a whole number of entries
+     */
+    public static PolyglotBook open(Path file) throws IOException {
+        return open(file, PolyglotKeys.STANDARD);
+    }
+
+    /**
+     * Maps a book file. The mapping stays valid for as long as the book is reachable, so there is
+     * nothing to close.
+     *
+     * @param file the .bin book
+     * @param keys how the book's positions were hashed
+     * @throws IOException              if the file can't be opened or mapped
+     * @throws IllegalArgumentException if the file isn't a whole number of entries
+     */
+    public static PolyglotBook open(Path file, PolyglotKeys keys) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_BYTES != 0) {
+                throw new IllegalArgumentException("Polyglot book " + file + " isn't a whole number of "
+                        + ENTRY_BYTES + "-byte entries");
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Polyglot book " + file + " is too big to map");
+            }
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), keys);
+        }
+    }
+
+    /**
+     * @return how many entries the book holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up every move the book gives for the game's position. Moves that aren't legal there,
+     * which can only come from two positions sharing a key, are left out.
+     *
+     * @return the moves in the order the book lists them (by weight for books made by Polyglot),
+     * or an empty list if the position isn't in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        long key = keys.hash(game);
+        List<BookMove> moves = new ArrayList<>();
+        Collection<ChessMove> legal = null;
+        for (int i = firstEntry(key); i < size && keyAt(i) == key; i++) {
+            int offset = i * ENTRY_BYTES;
+            int weight = entries.getShort(offset + 10) & 0xFFFF;
+            ChessMove move = decode(game, entries.getShort(offset + 8) & 0xFFFF);
+            if (legal == null) {
+                legal = game.allValidMoves(game.getTeamTurn());
+            }
+            if (legal.contains(move)) {
+                moves.add(new BookMove(move, weight));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves for the game's position at random, each as likely as its
+     * weight. When every move has weight 0 each is as likely as the others.
+     *
+     * @param random where the choice comes from
+     * @return the move, or null if the position isn't in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = moves(game);
+        if (moves.isEmpty()) {
+            return null;
+        }
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return moves.get(random.nextInt(moves.size())).move();
+        }
+        long roll = random.nextLong(total);
+        for (BookMove move : moves) {
+            roll -= move.weight();
+            if (roll < 0) {
+                return move.move();
+            }
+        }
+        throw new IllegalStateException("Unreachable: the roll is below the total weight");
+    }
+
+    /**
+     * @return the book's heaviest move for the game's position, or null if the position isn't in the book
+     */
+    public ChessMove best(ChessGame game) {
+        BookMove best = null;
+        for (BookMove move : moves(game)) {
+            if (best == null || move.weight() > best.weight()) {
+                best = move;
+            }
+        }
+        return best == null ? null : best.move();
+    }
+
+    //the first entry whose key isn't below the given one, comparing keys as unsigned like the file's sort order
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int entry) {
+        //absolute reads don't touch the buffer's position, so threads can share it
+        return entries.getLong(entry * ENTRY_BYTES);
+    }
+
+    //bits 0-5 are the end square and 6-11 the start square, each row * 8 + file; 12-14 the promotion
+    private static ChessMove decode(ChessGame game, int move) {
+        int to = move & 63;
+        int from = (move >>> 6) & 63;
+        ChessPiece.PieceType promotion = PROMOTIONS[Math.min((move >>> 12) & 7, 4)];
+        //castling is written as the king taking its own rook
+        ChessPiece piece = game.getBoard().getPiece(position(from));
+        ChessPiece target = game.getBoard().getPiece(position(to));
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && target != null
+                && target.getTeamColor() == piece.getTeamColor() && target.getPieceType() == ChessPiece.PieceType.ROOK) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        return new ChessMove(position(from), position(to), promotion);
+    }
+
+    private static ChessPosition position(int sq) {
+        return ChessPosition.of(sq / 8 + 1, sq % 8 + 1);
+    }
+}
@@ -0,0 +1,82 @@
+package chess.book;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Hashes positions the way Polyglot opening books are keyed.
+ * <p>
+ * A Polyglot key is the XOR of entries from a table of {@value #RANDOM_COUNT} random numbers:
+ * one per piece kind and square, one per castling right, one per en passant file (only when a
+ * pawn of the team to move stands beside the pawn that just moved two squares) and one when
+ * white is to move. This is not the same as {@link ChessBoard#positionKey()}, whose numbers are
+ * our own.
+ * <p>
+ * Every published book is keyed with the same table, Polyglot's "Random64", which is built in
+ * as {@link #STANDARD}.
+ */
+public final class PolyglotKeys {
+
+    public static final int RANDOM_COUNT = 781;
+    /**
+     * Hashes with the Random64 table, as every standard book is keyed
+     */
+    public static final PolyglotKeys STANDARD = new PolyglotKeys(Random64.VALUES);
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+    //the Polyglot kind for each piece index: black pawn 0, white pawn 1, black knight 2, ... white king 11
+    private static final int[] KINDS = new int[12];
+
+    static {
+        //Polyglot orders the types pawn, knight, bishop, rook, queen, king; ours go by PieceType ordinal
+        int[] polyglotType = {5, 4, 2, 1, 3, 0};
+        for (int piece = 0; piece < 12; piece++) {
+            boolean white = piece / 6 == ChessGame.TeamColor.WHITE.ordinal();
+            KINDS[piece] = polyglotType[piece % 6] * 2 + (white ? 1 : 0);
+        }
+    }
+
+    private final long[] randoms;
+
+    /**
+     * Hashes with a table of numbers other than the standard one, for books keyed some other way
+     *
+     * @param randoms the {@value #RANDOM_COUNT} numbers to hash with, in Polyglot's order
+     */
+    public PolyglotKeys(long[] randoms) {
+        if (randoms.length != RANDOM_COUNT) {
+            throw new IllegalArgumentException("Polyglot keys need " + RANDOM_COUNT + " numbers, got " + randoms.length);
+        }
+        this.randoms = randoms.clone();
+    }
+
+    /**
+     * @return the game's current position hashed as a Polyglot book key
+     */
+    public long hash(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long key = 0;
+        for (long occupied = board.getOccupied(); occupied != 0; occupied &= occupied - 1) {
+            //Polyglot numbers squares the same way: row * 8 + file, a1 first
+            int sq = Long.numberOfTrailingZeros(occupied);
+            key ^= randoms[64 * KINDS[board.pieceAt(sq)] + sq];
+        }
+        int rights = game.getCastlingRights();
+        for (int bit = 0; bit < 4; bit++) {
+            if ((rights & (1 << bit)) != 0) {
+                key ^= randoms[CASTLING_OFFSET + bit];
+            }
+        }
+        //the game only keeps an en passant square a pawn stands ready to capture on, as Polyglot wants
+        int enPassant = game.getEnPassantSquare();
+        if (enPassant >= 0) {
+            key ^= randoms[EN_PASSANT_OFFSET + enPassant % 8];
+        }
+        if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+            key ^= randoms[TURN_OFFSET];
+        }
+        return key;
+    }
+}
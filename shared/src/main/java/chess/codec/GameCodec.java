@@ -0,0 +1,171 @@
+package chess.codec;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A small fixed binary layout for a game, in place of Gson's reflective dump of the board.
+ * <p>
+ * A position takes {@value #POSITION_BYTES} bytes:
+ * <ul>
+ *     <li>bytes 0-31: the squares, two to a byte with the lower square in the low nibble. A nibble
+ *     is the piece index + 1 (white king, queen, bishop, knight, rook, pawn, then black's), or 0 when empty</li>
+ *     <li>byte 32: bit 0 set when black is to move, bits 1-4 the castling rights</li>
+ *     <li>byte 33: the en passant square + 1, or 0</li>
+ *     <li>bytes 34-35: the halfmove clock</li>
+ *     <li>bytes 36-39: the fullmove number</li>
+ * </ul>
+ * A whole game is the position its history starts from, the number of moves played as two
+ * bytes, then two bytes per move (start square, end square and promotion, as in {@link Move}).
+ * Reading it back replays the moves, checking each one is legal, so the game can still take
+ * them back and spot repetitions.
+ * <p>
+ * Everything is read and written straight from the caller's buffer, in the buffer's byte
+ * order, starting at its position.
+ */
+public final class GameCodec {
+
+    public static final int POSITION_BYTES = 40;
+
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameCodec() {
+    }
+
+    /**
+     * @return how many bytes {@link #write} needs for a game
+     */
+    public static int size(ChessGame game) {
+        return POSITION_BYTES + 2 + 2 * game.historySize();
+    }
+
+    /**
+     * Writes a game with its history
+     *
+     * @param game   the game
+     * @param buffer where to write; needs {@link #size} bytes remaining
+     */
+    public static void write(ChessGame game, ByteBuffer buffer) {
+        int plies = game.historySize();
+        if (plies > 0xFFFF) {
+            throw new IllegalArgumentException("Too many moves to encode: " + plies);
+        }
+        writePosition(plies == 0 ? game : game.replay(0), buffer);
+        buffer.putShort((short) plies);
+        for (int ply = 0; ply < plies; ply++) {
+            buffer.putShort((short) Move.fromChessMove(game.moveAt(ply)));
+        }
+    }
+
+    /**
+     * Reads a game written by {@link #write}
+     *
+     * @param buffer where to read from
+     * @return the game, with its history
+     * @throws IllegalArgumentException if the bytes don't hold a valid game
+     */
+    public static ChessGame read(ByteBuffer buffer) {
+        ChessGame game = readPosition(buffer);
+        int plies = readShort(buffer);
+        for (int ply = 0; ply < plies; ply++) {
+            ChessMove move = Move.toChessMove(readShort(buffer) & 0x7FFF);
+            ChessPiece piece = game.getBoard().getPiece(move.getStartPosition());
+            if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                throw new IllegalArgumentException("Encoded move " + (ply + 1) + " has no piece to move");
+            }
+            if (!game.validMoves(move.getStartPosition()).contains(move)) {
+                throw new IllegalArgumentException("Encoded move " + (ply + 1) + " isn't legal: " + move);
+            }
+            game.makeMoveUnchecked(move);
+        }
+        return game;
+    }
+
+    /**
+     * Writes just the current position, leaving out the history
+     *
+     * @param game   the game
+     * @param buffer where to write; needs {@value #POSITION_BYTES} bytes remaining
+     */
+    public static void writePosition(ChessGame game, ByteBuffer buffer) {
+        ChessBoard board = game.getBoard();
+        for (int sq = 0; sq < 64; sq += 2) {
+            buffer.put((byte) ((board.pieceAt(sq) + 1) | (board.pieceAt(sq + 1) + 1) << 4));
+        }
+        buffer.put((byte) (game.getTeamTurn().ordinal() | game.getCastlingRights() << 1));
+        buffer.put((byte) (game.getEnPassantSquare() + 1));
+        buffer.putShort((short) Math.min(game.getHalfmoveClock(), 0xFFFF));
+        buffer.putInt(game.getFullmoveNumber());
+    }
+
+    /**
+     * Reads a position written by {@link #writePosition}
+     *
+     * @param buffer where to read from
+     * @return a game at that position, with no moves to take back
+     * @throws IllegalArgumentException if the bytes don't hold a valid position
+     */
+    public static ChessGame readPosition(ByteBuffer buffer) {
+        if (buffer.remaining() < POSITION_BYTES) {
+            throw new IllegalArgumentException("Encoded position needs " + POSITION_BYTES + " bytes, only "
+                    + buffer.remaining() + " left");
+        }
+        ChessBoard board = new ChessBoard();
+        for (int sq = 0; sq < 64; sq += 2) {
+            int pair = buffer.get() & 0xFF;
+            addPiece(board, sq, (pair & 15) - 1);
+            addPiece(board, sq + 1, (pair >>> 4) - 1);
+        }
+        int state = buffer.get() & 0xFF;
+        int enPassant = (buffer.get() & 0xFF) - 1;
+        int halfmoveClock = buffer.getShort() & 0xFFFF;
+        int fullmoveNumber = buffer.getInt();
+        if (state > 31 || enPassant > 63) {
+            throw new IllegalArgumentException("Encoded position has bad state bits");
+        }
+        return new ChessGame(board, TEAMS[state & 1], state >>> 1, enPassant, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * @return the game with its history, as a new array
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[size(game)];
+        write(game, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * @return the game held in bytes from {@link #encode}
+     * @throws IllegalArgumentException if the bytes don't hold a valid game
+     */
+    public static ChessGame decode(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    private static void addPiece(ChessBoard board, int sq, int piece) {
+        if (piece < 0) {
+            return;
+        }
+        if (piece >= 12) {
+            throw new IllegalArgumentException("Encoded position has a bad piece on square " + sq);
+        }
+        board.addPiece(ChessPosition.of(sq / 8 + 1, sq % 8 + 1), ChessPiece.of(TEAMS[piece / 6], TYPES[piece % 6]));
+    }
+
+    private static int readShort(ByteBuffer buffer) {
+        try {
+            return buffer.getShort() & 0xFFFF;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game ends too soon");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Static evaluation: material and piece-square tables, tapered by game phase. The board keeps
+ * the sums up to date as moves are made and unmade, so a leaf costs no scan of the board.
+ */
+final class Evaluation {
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the score in centipawns from the point of view of the team to move
+     */
+    static int evaluate(ChessGame game) {
+        int score = game.evaluate();
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,147 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.book.PolyglotBook;
+import chess.tablebase.Tablebases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches one position on several threads at once ("Lazy SMP").
+ * <p>
+ * Every thread runs an ordinary {@link Search} on its own copy of the game, and they share
+ * nothing but the transposition table. What one thread finds is stored there and cuts off or
+ * orders the others' searches, so together they get deeper than one thread would. Half the
+ * helpers start an iteration deeper than the main thread, so they spread out over the tree
+ * instead of all searching the same moves in step.
+ * <p>
+ * The search ends when the main thread reaches its limits or {@link #stop()} is called; the
+ * result of whichever thread finished the deepest iteration is returned.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    private PolyglotBook book;
+    private Tablebases tablebases;
+
+    /**
+     * @param threads   how many threads to search with, including the calling thread
+     * @param megabytes size of the shared transposition table
+     */
+    public ParallelSearch(int threads, int megabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        table = new TranspositionTable(megabytes);
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+        }
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Sets an opening book to play from; a position the book knows gets one of its moves,
+     * picked by weight, without searching
+     *
+     * @param book the book, or null to always search
+     */
+    public void setBook(PolyglotBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Sets endgame tablebases to play from; a position they cover gets their best move without
+     * searching
+     *
+     * @param tablebases the tablebases, or null to always search
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Searches the game's position for the team to move, blocking until the search ends.
+     * The game itself isn't changed.
+     *
+     * @param game   the position to search
+     * @param limits when to stop; a node limit is shared out between the threads
+     * @return the best move found, with the nodes of every thread counted
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        SearchResult known = Search.knownResult(book, tablebases, game);
+        if (known != null) {
+            return known;
+        }
+        table.newSearch();
+        for (Search search : searches) {
+            search.prepare();
+        }
+        SearchLimits perThread = new SearchLimits(limits.depth(),
+                Math.max(1, limits.nodes() / searches.length), limits.millis());
+
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            ChessGame copy = new ChessGame(game);
+            int firstDepth = 1 + (i & 1);
+            running.add(helpers.submit(() -> helper.run(copy, perThread, firstDepth)));
+        }
+
+        SearchResult main = searches[0].run(new ChessGame(game), perThread, 1);
+        stop();
+        SearchResult best = main;
+        long nodes = main.nodes();
+        for (Future<SearchResult> future : running) {
+            SearchResult result = waitFor(future);
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.bestMove() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, main.millis());
+    }
+
+    private static SearchResult waitFor(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a search thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops every thread of a running search; safe to call from any thread
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.book.PolyglotBook;
+import chess.tablebase.TablebaseResult;
+import chess.tablebase.Tablebases;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Finds a move by iterative-deepening alpha-beta search with a quiescence search at the leaves.
+ * <p>
+ * Moves are made and taken back on the game itself, so a search allocates nothing per node.
+ * Results are kept in a {@link TranspositionTable}, so positions reached again by another
+ * move order, or in the next iteration, are answered or at least ordered from what was found
+ * before. To cut off as much of the tree as possible the likeliest best moves are tried first:
+ * the stored best move (or at the root the best move from the last iteration), then captures
+ * by most valuable victim and least valuable attacker, then queen promotions, then quiet moves
+ * that caused a cutoff at the same ply (killers), then quiet moves by how often they have
+ * caused cutoffs anywhere (history).
+ * <p>
+ * Given an opening book, a search of a position the book knows plays one of the book's moves
+ * without searching at all, and given endgame tablebases, so does a search of a position they
+ * cover.
+ * <p>
+ * A Search keeps its tables between calls and isn't thread safe; use one per thread, or
+ * {@link ParallelSearch} to run several on one position.
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 128;
+    public static final int MATE = 32_000;
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+    static final int INFINITY = 32_001;
+
+    private static final int CAPTURE_ORDER = 1_000_000;
+    private static final int PROMOTION_ORDER = 900_000;
+    private static final int KILLER_ORDER = 800_000;
+    private static final int HISTORY_LIMIT = 700_000;
+    //the clock is only read this often, since reading it costs more than a node
+    private static final int CHECK_INTERVAL = 1024;
+    //more moves than any position has
+    private static final int MAX_MOVES = 256;
+
+    //capture ordering ranks by PieceType ordinal (KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN)
+    private static final int[] VICTIM_RANK = {0, 5, 3, 2, 4, 1};
+    private static final int[] ATTACKER_RANK = {6, 5, 3, 2, 4, 1};
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    //cutoff counts indexed by piece index * 64 + end square
+    private final int[] history = new int[12 * 64];
+
+    private final TranspositionTable table;
+    private PolyglotBook book;
+    private Tablebases tablebases;
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int rootDepth;
+    private int rootBest;
+    private volatile boolean stopped;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param table where results are stored; it can be shared with searches on other threads
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList(MAX_MOVES);
+        }
+    }
+
+    /**
+     * Searches the game's position for the team to move. The game is played forward and taken
+     * back in place, so it ends where it started but must not be touched while the search runs.
+     *
+     * @param game   the position to search
+     * @param limits when to stop
+     * @return the best move found and its score
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        SearchResult known = knownResult(book, tablebases, game);
+        if (known != null) {
+            return known;
+        }
+        prepare();
+        table.newSearch();
+        return run(game, limits, 1);
+    }
+
+    /**
+     * Sets an opening book to play from
+     *
+     * @param book the book, or null to always search
+     */
+    public void setBook(PolyglotBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Sets endgame tablebases to play from
+     *
+     * @param tablebases the tablebases, or null to always search
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    //a book or tablebase move as a result with no search behind it; null when neither covers the position
+    static SearchResult knownResult(PolyglotBook book, Tablebases tablebases, ChessGame game) {
+        long start = System.nanoTime();
+        if (book != null) {
+            ChessMove move = book.pick(game, ThreadLocalRandom.current());
+            if (move != null) {
+                return new SearchResult(move, 0, 0, 0, elapsedMillis(start));
+            }
+        }
+        if (tablebases != null) {
+            TablebaseResult result = tablebases.probe(game);
+            ChessMove move = result == null ? null : tablebases.bestMove(game);
+            if (move != null) {
+                int score = switch (result.outcome()) {
+                    case WIN -> MATE - result.pliesToMate();
+                    case DRAW -> 0;
+                    case LOSS -> -(MATE - result.pliesToMate());
+                };
+                return new SearchResult(move, score, 0, 0, elapsedMillis(start));
+            }
+        }
+        return null;
+    }
+
+    //clears the stop flag; kept apart from run so a stop() that arrives before a helper thread gets going still counts
+    void prepare() {
+        stopped = false;
+    }
+
+    //iterative deepening from firstDepth; helper threads start at different depths so they don't all search the same tree
+    SearchResult run(ChessGame game, SearchLimits limits, int firstDepth) {
+        long start = System.nanoTime();
+        this.game = game;
+        nodes = 0;
+        nodeLimit = limits.nodes();
+        deadline = limits.millis() >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : start + limits.millis() * 1_000_000;
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+
+        MoveList rootMoves = new MoveList(MAX_MOVES);
+        game.generateMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(start));
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = firstDepth; depth <= Math.min(limits.depth(), MAX_PLY - 1); depth++) {
+            rootDepth = depth;
+            int score = searchRoot(rootMoves, depth, bestMove);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completedDepth = depth;
+            table.store(game.positionKey(), bestMove, TranspositionTable.EXACT, depth, score);
+            //a shorter mate can't turn up deeper, since every shorter line has been searched
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+        return new SearchResult(Move.toChessMove(bestMove), bestScore, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Asks a running search to stop. It returns the best move from its last finished iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private int searchRoot(MoveList moves, int depth, int previousBest) {
+        int[] scores = scoreMoves(moves, 0, previousBest);
+        int alpha = -INFINITY;
+        rootBest = previousBest;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            long undo = game.makeMoveUnchecked(move);
+            int score = -alphaBeta(depth - 1, 1, -INFINITY, -alpha);
+            game.unmakeMove(undo);
+            if (stopped) {
+                return alpha;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBest = move;
+            }
+        }
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        if (isDraw()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(game);
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        //look one ply further when in check, so a forced line of checks isn't cut off halfway
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = game.positionKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = scoreMoves(moves, ply, hashMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            long undo = game.makeMoveUnchecked(move);
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove(undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move) && Move.promotion(move) == null) {
+                            rememberCutoff(move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, bound, depth, TranspositionTable.scoreToTable(best, ply));
+        return best;
+    }
+
+    //searches captures only until the position is quiet, so the evaluation isn't taken mid-exchange
+    private int quiesce(int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(game);
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int best;
+        if (inCheck) {
+            //every escape has to be looked at, since standing still isn't an option
+            game.generateMoves(moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            int standPat = Evaluation.evaluate(game);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            best = standPat;
+            game.generateCaptures(moves);
+        }
+
+        int[] scores = scoreMoves(moves, ply, Move.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            long undo = game.makeMoveUnchecked(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.unmakeMove(undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    //a position repeated once in the search is scored as a draw, since repeating it again is always possible
+    private boolean isDraw() {
+        return game.getHalfmoveClock() >= 100 || game.repetitions() > 0 || game.getBoard().hasInsufficientMaterial();
+    }
+
+    //counts a node and reports whether the search should stop; the first iteration always finishes
+    private boolean countNode() {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && rootDepth > 1
+                && (nodes >= nodeLimit || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private int[] scoreMoves(MoveList moves, int ply, int firstMove) {
+        int[] scores = orderScores[ply];
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            int score;
+            if (move == firstMove) {
+                score = Integer.MAX_VALUE;
+            } else if (Move.isCapture(move)) {
+                int victim = Move.isEnPassant(move)
+                        ? ChessPiece.PieceType.PAWN.ordinal()
+                        : ChessPiece.typeOf(board.pieceAt(to)).ordinal();
+                int attacker = ChessPiece.typeOf(board.pieceAt(from)).ordinal();
+                score = CAPTURE_ORDER + VICTIM_RANK[victim] * 8 - ATTACKER_RANK[attacker];
+            } else if (Move.promotion(move) == ChessPiece.PieceType.QUEEN) {
+                score = PROMOTION_ORDER;
+            } else if (move == killers[ply][0]) {
+                score = KILLER_ORDER + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_ORDER;
+            } else {
+                score = history[board.pieceAt(from) * 64 + to];
+            }
+            scores[i] = score;
+        }
+        return scores;
+    }
+
+    //moves the best scoring of the untried moves to index i and returns it
+    private static int pickNext(MoveList moves, int[] scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = scores[best];
+            scores[best] = scores[i];
+            scores[i] = score;
+        }
+        return moves.get(i);
+    }
+
+    private void rememberCutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = game.getBoard().pieceAt(Move.from(move)) * 64 + Move.to(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package chess.engine;
+
+/**
+ * How far a search may go. It stops at whichever limit it reaches first, but always finishes
+ * at least a one-move search so there is a move to play.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  most positions to visit
+ * @param millis most wall-clock time to spend, in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    public static SearchLimits ofDepth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits ofNodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY, nodes, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits ofMillis(long millis) {
+        return new SearchLimits(Search.MAX_PLY, Long.MAX_VALUE, millis);
+    }
+}
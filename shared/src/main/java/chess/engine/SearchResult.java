@@ -0,0 +1,27 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a search found.
+ *
+ * @param bestMove the move to play, or null if the team to move has none
+ * @param score    centipawns from the point of view of the team to move; mates are scored
+ *                 as {@link Search#MATE} minus the plies to the mate
+ * @param depth    the deepest iteration that finished
+ * @param nodes    positions visited
+ * @param millis   time taken
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long millis) {
+
+    /**
+     * @return true if the score is a forced mate for either team
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(millis, 1);
+    }
+}
@@ -0,0 +1,170 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by Zobrist position key, shared by every search
+ * thread without locks.
+ * <p>
+ * Each entry is two longs: the key XORed with the data, then the data. A reader only accepts
+ * an entry when XORing the two words gives back its key, so an entry half-written by another
+ * thread (or one belonging to a different position) reads as a miss instead of as garbage.
+ * <p>
+ * Entries sit in buckets of two. The first slot keeps the deepest result, and is only given up
+ * to an equal or deeper search or to a result from a newer search. The second slot always takes
+ * the newest result, so recent positions are found even when the deep slot is held.
+ * <p>
+ * The data packs the best move in bits 0-18, the bound in bits 19-20, the depth in bits
+ * 21-28, the search generation in bits 29-36 and the score in bits 48-63.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    //the score is at least the stored one (the search failed high)
+    public static final int LOWER = 2;
+    //the score is at most the stored one (the search failed low)
+    public static final int UPPER = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * @param megabytes how much memory to use; rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit(((long) megabytes << 20) / (BUCKET_LONGS * Long.BYTES));
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Starts a new search, so entries from older searches give way to new ones first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @return the packed entry data, or 0 if the position isn't stored
+     */
+    public long probe(long key) {
+        int bucket = bucket(key);
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[slot + 1];
+            if (data != 0 && (table[slot] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result for a position
+     *
+     * @param key   the position key
+     * @param move  the best packed move found, or Move.NONE
+     * @param bound EXACT, LOWER or UPPER
+     * @param depth the depth searched
+     * @param score the score, with mates counted from this position (see {@link #scoreToTable})
+     */
+    public void store(long key, int move, int bound, int depth, int score) {
+        int bucket = bucket(key);
+        long data = pack(move, bound, depth, score, generation);
+        long deepData = table[bucket + 1];
+        boolean samePosition = (table[bucket] ^ deepData) == key;
+        if (samePosition || deepData == 0 || depth >= depth(deepData) || generation(deepData) != generation) {
+            //keep a known best move when the new result doesn't have one
+            if (samePosition && move == 0) {
+                data |= move(deepData);
+            }
+            table[bucket] = key ^ data;
+            table[bucket + 1] = data;
+        } else {
+            table[bucket + 2] = key ^ data;
+            table[bucket + 3] = data;
+        }
+    }
+
+    private static long pack(int move, int bound, int depth, int score, int generation) {
+        return (move & 0x7FFFFL) | ((long) bound << 19) | ((long) (depth & 0xFF) << 21)
+                | ((long) generation << 29) | ((long) (score & 0xFFFF) << 48);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x7FFFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 19) & 3);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 21) & 0xFF);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 29) & 0xFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 48);
+    }
+
+    /**
+     * Mate scores count plies from the root, but a stored position can be reached at any ply,
+     * so they are stored counting from the position itself
+     */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * @return roughly how full the table is, in thousandths, from a sample of its first buckets
+     */
+    public int hashfull() {
+        int sampled = Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = table[i * BUCKET_LONGS + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sampled;
+    }
+}
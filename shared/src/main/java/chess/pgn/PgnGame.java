@@ -0,0 +1,22 @@
+package chess.pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game from a PGN file: its tag pairs, in the order they were read, and the game with
+ * every move of the main line played, so it can be stepped back through with undo or replay.
+ *
+ * @param tags the tag pairs, like Event, White and Result
+ * @param game the game after its last move
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game) {
+
+    /**
+     * @return the game's result tag (1-0, 0-1, 1/2-1/2 or *)
+     */
+    public String result() {
+        return tags.getOrDefault("Result", "*");
+    }
+}
@@ -0,0 +1,14 @@
+package chess.pgn;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game from a PGN file as read, before any move is played: its tag pairs and the SAN of
+ * each main-line move, with move numbers, comments and variations already stripped.
+ *
+ * @param tags  the tag pairs, in the order they were read
+ * @param moves the main-line moves in SAN
+ */
+public record PgnMoveText(Map<String, String> tags, List<String> moves) {
+}
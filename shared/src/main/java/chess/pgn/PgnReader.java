@@ -0,0 +1,273 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games from a PGN stream one at a time, so a file of any size can be imported without
+ * holding more than the current game.
+ * <p>
+ * Each call to {@link #next()} reads the tag pairs and movetext of one game and plays the main
+ * line through a {@link ChessGame}, starting from the FEN tag when there is one. Comments,
+ * variations, numeric annotations and % escape lines are skipped.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final Reader in;
+    //a character read ahead and not used yet, or -2 if there isn't one
+    private int peeked = -2;
+    private int gamesRead;
+    private final StringBuilder token = new StringBuilder(32);
+
+    /**
+     * @param in a UTF-8 PGN stream; it is closed along with the reader
+     */
+    public PgnReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public PgnReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in, BUFFER_CHARS);
+    }
+
+    /**
+     * Reads the next game and plays its moves. A game whose moves can't be played is still read
+     * to its end before the exception is thrown, so the caller can skip it and carry on with the
+     * next one.
+     *
+     * @return the game, or null at the end of the stream
+     * @throws IOException              if the stream can't be read
+     * @throws IllegalArgumentException if the game's FEN or one of its moves isn't valid
+     */
+    public PgnGame next() throws IOException {
+        PgnMoveText moveText = nextMoveText();
+        if (moveText == null) {
+            return null;
+        }
+        try {
+            return play(moveText);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("PGN game " + gamesRead + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the next game without playing its moves, for callers that play them elsewhere
+     * (on other threads, say)
+     *
+     * @return the game's tags and moves, or null at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    public PgnMoveText nextMoveText() throws IOException {
+        int c = skipEscapes(skipWhitespace());
+        if (c < 0) {
+            return null;
+        }
+        gamesRead++;
+        Map<String, String> tags = new LinkedHashMap<>();
+        while (c == '[') {
+            readTag(tags);
+            c = skipEscapes(skipWhitespace());
+        }
+
+        List<String> moves = new ArrayList<>();
+        while (c >= 0) {
+            if (c == '[') {
+                //the next game's tags, so this one ended without a result
+                peeked = c;
+                break;
+            }
+            if (!skipCommentary(c)) {
+                String text = readToken(c);
+                if (isResult(text)) {
+                    tags.putIfAbsent("Result", text);
+                    break;
+                }
+                String san = withoutMoveNumber(text);
+                if (!san.isEmpty()) {
+                    moves.add(san);
+                }
+            }
+            c = skipWhitespace();
+        }
+        return new PgnMoveText(tags, moves);
+    }
+
+    /**
+     * Plays a game's moves, starting from its FEN tag when it has one
+     *
+     * @throws IllegalArgumentException if the FEN or one of the moves isn't valid
+     */
+    public static PgnGame play(PgnMoveText moveText) {
+        String fen = moveText.tags().get("FEN");
+        ChessGame game = fen != null ? ChessGame.fromFen(fen) : new ChessGame();
+        for (String san : moveText.moves()) {
+            try {
+                game.makeMoveUnchecked(ChessMove.fromSan(san, game));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("move " + (game.historySize() + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new PgnGame(moveText.tags(), game);
+    }
+
+    /**
+     * @return how many games have been read so far, including any that failed
+     */
+    public int gamesRead() {
+        return gamesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    //skips % escape lines, which can come before and between tags as well as in movetext
+    private int skipEscapes(int c) throws IOException {
+        while (c == '%') {
+            skipLine();
+            c = skipWhitespace();
+        }
+        return c;
+    }
+
+    private void skipLine() throws IOException {
+        int c = read();
+        while (c >= 0 && c != '\n') {
+            c = read();
+        }
+    }
+
+    //skips a comment, variation, numeric annotation or escape line starting with c; false if c starts none of them
+    private boolean skipCommentary(int c) throws IOException {
+        switch (c) {
+            case '{' -> {
+                do {
+                    c = read();
+                } while (c >= 0 && c != '}');
+            }
+            case ';', '%' -> skipLine();
+            case '$' -> readToken(c);
+            case '(' -> {
+                //variations nest and can hold comments with brackets in them
+                int depth = 1;
+                while (depth > 0 && (c = read()) >= 0) {
+                    if (c == '(') {
+                        depth++;
+                    } else if (c == ')') {
+                        depth--;
+                    } else if (c == '{' || c == ';') {
+                        skipCommentary(c);
+                    }
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //reads from c up to the next whitespace or bracket, leaving the bracket to be read next
+    private String readToken(int c) throws IOException {
+        token.setLength(0);
+        do {
+            token.append((char) c);
+            c = read();
+        } while (c >= 0 && !Character.isWhitespace(c) && "{}()[];".indexOf(c) < 0);
+        if (c >= 0 && !Character.isWhitespace(c)) {
+            peeked = c;
+        }
+        return token.toString();
+    }
+
+    //reads one [Name "value"] tag pair after its opening bracket
+    private void readTag(Map<String, String> tags) throws IOException {
+        token.setLength(0);
+        int c = skipWhitespace();
+        while (c >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            token.append((char) c);
+            c = read();
+        }
+        String name = token.toString();
+        while (c >= 0 && c != '"' && c != ']') {
+            c = read();
+        }
+        token.setLength(0);
+        if (c == '"') {
+            c = read();
+            while (c >= 0 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (c >= 0) {
+                    token.append((char) c);
+                }
+                c = read();
+            }
+            while (c >= 0 && c != ']') {
+                c = read();
+            }
+        }
+        if (!name.isEmpty()) {
+            tags.put(name, token.toString());
+        }
+    }
+
+    private static boolean isResult(String text) {
+        return text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*");
+    }
+
+    //a move number can come on its own ("12." or "12...") or run into its move ("12.e4"); castling can be written 0-0
+    private static String withoutMoveNumber(String text) {
+        int i = 0;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == 0) {
+            return text;
+        }
+        if (i == text.length()) {
+            return "";
+        }
+        if (text.charAt(i) != '.') {
+            return text;
+        }
+        while (i < text.length() && text.charAt(i) == '.') {
+            i++;
+        }
+        return text.substring(i);
+    }
+}
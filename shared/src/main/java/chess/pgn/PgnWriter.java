@@ -0,0 +1,139 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes games to a PGN stream one at a time, straight from their move histories.
+ * <p>
+ * Each game gets the seven standard tags (filled with "?" when not given) followed by any
+ * other tags, then its moves in SAN wrapped to fit 80 columns. A game whose history doesn't
+ * start from the usual starting position also gets SetUp and FEN tags for where it does start.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final String START_FEN = new ChessGame().toFen();
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 1);
+
+    /**
+     * @param out where the UTF-8 PGN goes; it is closed along with the writer
+     */
+    public PgnWriter(OutputStream out) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public PgnWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+    }
+
+    public void write(PgnGame game) throws IOException {
+        write(game.game(), game.tags());
+    }
+
+    /**
+     * Writes a game's whole history
+     *
+     * @param game the game; it is left as it was
+     * @param tags tags for the game, like Event and White; the Result tag is worked out from
+     *             the game when it isn't given
+     */
+    public void write(ChessGame game, Map<String, String> tags) throws IOException {
+        ChessGame replay = game.replay(0);
+        String result = tags.getOrDefault("Result", result(game));
+        for (String name : SEVEN_TAG_ROSTER) {
+            writeTag(name, name.equals("Result") ? result : tags.getOrDefault(name, "?"));
+        }
+        String startFen = replay.toFen();
+        if (!startFen.equals(START_FEN) && !tags.containsKey("FEN")) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", startFen);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRoster(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        line.setLength(0);
+        for (int ply = 0; ply < game.historySize(); ply++) {
+            boolean white = replay.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            ChessMove move = game.moveAt(ply);
+            String san = move.toSan(replay);
+            //a move number stays on the same line as its move
+            if (white || ply == 0) {
+                san = replay.getFullmoveNumber() + (white ? ". " : "... ") + san;
+            }
+            appendWord(san);
+            replay.makeMoveUnchecked(move);
+        }
+        appendWord(result);
+        out.append(line).write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    //the result the game's final position shows: a win for whoever gave mate, a draw, or * while it goes on
+    private static String result(ChessGame game) {
+        return switch (game.evaluateStatus()) {
+            case CHECKMATE -> game.getTeamTurn() == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+            case STALEMATE, THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+
+    private static boolean isRoster(String name) {
+        for (String rosterName : SEVEN_TAG_ROSTER) {
+            if (rosterName.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    //adds a word to the movetext line, starting a new line when it would run past the limit
+    private void appendWord(String word) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + word.length() > LINE_LENGTH) {
+            out.append(line).write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(word);
+    }
+}
@@ -0,0 +1,34 @@
+package chess.tablebase;
+
+/**
+ * The one-byte table entries, from the point of view of the team to move: 0 for a draw,
+ * {@value #INVALID} (as an unsigned byte) for a placement no game can reach, and otherwise the
+ * plies to mate + 1. An odd number of plies is a win, since the team to move gives the mate; an
+ * even number is a loss, 0 plies being checkmate already.
+ */
+final class Dtm {
+
+    static final int DRAW = 0;
+    static final int INVALID = 255;
+    static final int MAX_PLIES = 253;
+
+    private Dtm() {
+    }
+
+    static int code(int plies) {
+        return plies + 1;
+    }
+
+    //the plies to mate for an entry that is neither a draw nor invalid
+    static int plies(int code) {
+        return code - 1;
+    }
+
+    static boolean isWin(int code) {
+        return code != DRAW && code != INVALID && (plies(code) & 1) == 1;
+    }
+
+    static boolean isLoss(int code) {
+        return code != DRAW && code != INVALID && (plies(code) & 1) == 0;
+    }
+}
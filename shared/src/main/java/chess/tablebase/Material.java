@@ -0,0 +1,198 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * The pieces on the board in a tablebase endgame, named the usual way: white's pieces then
+ * black's, each side starting with its king, like KQK or KBNK.
+ * <p>
+ * A material's table holds one entry for each placement of its pieces on distinct squares and
+ * each team to move. The entry for a position is at
+ * {@code turn * 64^n + square[0] * 64^(n-1) + ... + square[n-1]}, where the squares are listed
+ * in the order the pieces are named (king, queen, rook, bishop, knight, pawn for each side) and
+ * a square is row * 8 + column from 0 at a1. Pieces of the same kind take the squares in rising
+ * order when a board is looked up, though tables hold both orders.
+ */
+public final class Material {
+
+    /**
+     * Most pieces a table can cover, kings included; four pieces make a 32 MB table
+     */
+    public static final int MAX_PIECES = 4;
+
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    //the naming order of the piece types, which isn't PieceType's order
+    private static final String LETTERS = "KQRBNP";
+    private static final ChessPiece.PieceType[] LETTER_TYPES = {ChessPiece.PieceType.KING, ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN};
+
+    private final String name;
+    //the piece index (as in ChessBoard.pieceAt) for each square of an entry, in naming order
+    private final int[] pieces;
+
+    private Material(String name, int[] pieces) {
+        this.name = name;
+        this.pieces = pieces;
+    }
+
+    /**
+     * Reads a material name like KRK or KPKP. Pieces may be listed in any order after each king.
+     *
+     * @throws IllegalArgumentException if the name isn't two kings with their pieces, or has more
+     *                                  than {@value #MAX_PIECES} pieces
+     */
+    public static Material of(String name) {
+        int secondKing = name.indexOf('K', 1);
+        if (!name.startsWith("K") || secondKing < 0 || name.indexOf('K', secondKing + 1) >= 0) {
+            throw new IllegalArgumentException("Bad material \"" + name + "\": it must be a king and pieces for each side, like KQK");
+        }
+        if (name.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("Bad material \"" + name + "\": tables cover at most " + MAX_PIECES + " pieces");
+        }
+        int[] pieces = new int[name.length()];
+        for (int i = 0; i < name.length(); i++) {
+            int letter = LETTERS.indexOf(name.charAt(i));
+            if (letter < 0) {
+                throw new IllegalArgumentException("Bad material \"" + name + "\": unexpected '" + name.charAt(i) + "'");
+            }
+            ChessGame.TeamColor color = i < secondKing ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            pieces[i] = color.ordinal() * 6 + LETTER_TYPES[letter].ordinal();
+        }
+        return of(pieces, pieces.length);
+    }
+
+    /**
+     * @return the material on a board, or null if it has more than {@value #MAX_PIECES} pieces
+     */
+    public static Material of(ChessBoard board) {
+        long occupied = board.getOccupied();
+        if (Long.bitCount(occupied) > MAX_PIECES) {
+            return null;
+        }
+        int[] pieces = new int[Long.bitCount(occupied)];
+        for (int i = 0; occupied != 0; occupied &= occupied - 1) {
+            pieces[i++] = board.pieceAt(Long.numberOfTrailingZeros(occupied));
+        }
+        return of(pieces, pieces.length);
+    }
+
+    //the material made of the first count pieces, in any order; it needs one king of each team
+    static Material of(int[] pieces, int count) {
+        int[] sorted = new int[count];
+        StringBuilder name = new StringBuilder(count);
+        int kings = 0;
+        int i = 0;
+        for (int color = 0; color < 2; color++) {
+            for (ChessPiece.PieceType type : LETTER_TYPES) {
+                int piece = color * 6 + type.ordinal();
+                for (int j = 0; j < count; j++) {
+                    if (pieces[j] == piece) {
+                        sorted[i++] = piece;
+                        name.append(LETTERS.charAt(letter(type)));
+                        kings += type == ChessPiece.PieceType.KING ? 1 << color * 4 : 0;
+                    }
+                }
+            }
+        }
+        if (kings != 0x11) {
+            throw new IllegalArgumentException("Bad material \"" + name + "\": each side needs exactly one king");
+        }
+        return new Material(name.toString(), sorted);
+    }
+
+    private static int letter(ChessPiece.PieceType type) {
+        for (int i = 0; i < LETTER_TYPES.length; i++) {
+            if (LETTER_TYPES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unreachable: every type has a letter");
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return how many pieces there are, kings included
+     */
+    public int pieceCount() {
+        return pieces.length;
+    }
+
+    /**
+     * @return the piece index (as in {@link ChessBoard#pieceAt}) of the entry's nth square
+     */
+    public int piece(int slot) {
+        return pieces[slot];
+    }
+
+    /**
+     * @return how many entries the material's table has
+     */
+    public int tableSize() {
+        return 2 << 6 * pieces.length;
+    }
+
+    /**
+     * @return the same pieces with the teams swapped, so KQK becomes KKQ
+     */
+    public Material flipped() {
+        int[] swapped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            swapped[i] = (pieces[i] + 6) % 12;
+        }
+        return of(swapped, swapped.length);
+    }
+
+    //the entry for a team to move and a square for each piece in naming order
+    int index(int turn, int[] squares) {
+        int index = turn;
+        for (int i = 0; i < pieces.length; i++) {
+            index = index << 6 | squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Finds a position's entry in this material's table
+     *
+     * @return the entry, or -1 if the board holds other pieces
+     */
+    public int index(ChessBoard board, ChessGame.TeamColor turn) {
+        if (Long.bitCount(board.getOccupied()) != pieces.length) {
+            return -1;
+        }
+        int index = turn.ordinal();
+        long used = 0;
+        for (int piece : pieces) {
+            long candidates = board.getPieces(TEAMS[piece / 6], TYPES[piece % 6]) & ~used;
+            if (candidates == 0) {
+                return -1;
+            }
+            int sq = Long.numberOfTrailingZeros(candidates);
+            used |= 1L << sq;
+            index = index << 6 | sq;
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Material other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,535 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves small endgames by retrograde analysis and writes their distance-to-mate tables.
+ * <p>
+ * Every entry of a material's table (see {@link Material}) starts out by generating the moves
+ * of the team to move: checkmates are lost in 0 plies, stalemates drawn, and captures and
+ * promotions, which leave the table, are scored from the smaller tables they lead to, which are
+ * solved first. Then the table is solved outwards one ply at a time. For each position lost in
+ * n plies, every position one move before it wins in n + 1; for each position won in n plies,
+ * every position one move before it has one fewer move left that doesn't lose, and when none
+ * are left it is lost. Positions one move before are found by moving the other team's pieces
+ * backwards, so only the positions that can change are touched. Whatever is never settled
+ * is a draw.
+ * <p>
+ * Each pass is split into chunks of entries shared out over a fork-join pool, with the entries
+ * updated by atomic byte operations. Tables ignore castling and en passant, and the fifty-move
+ * rule.
+ */
+public final class TablebaseGenerator implements AutoCloseable {
+
+    public static final String EXTENSION = ".dtm";
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(byte[].class);
+    //eight entries at once, to skip through a table looking for one value
+    private static final VarHandle EIGHT_ENTRIES = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final int CHUNKS_PER_THREAD = 16;
+    private static final int WHITE = ChessGame.TeamColor.WHITE.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    //what a pawn can promote to, after 0 for no promotion
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private final ForkJoinPool pool;
+    //every table solved so far, and the smaller tables each one's captures and promotions lead to
+    private final Map<Material, byte[]> tables = new HashMap<>();
+    private final Map<Material, List<Material>> needs = new HashMap<>();
+
+    /**
+     * @param threads how many threads to solve with
+     */
+    public TablebaseGenerator(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one generator thread");
+        }
+        pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+    }
+
+    public int threads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Solves a material's table, along with the smaller tables it needs, and writes them all
+     * to a directory as {@code <material>}{@value #EXTENSION}
+     *
+     * @param material  the endgame to solve
+     * @param directory where the tables go
+     * @throws IOException if a table can't be written
+     */
+    public void write(Material material, Path directory) throws IOException {
+        generate(material);
+        Files.createDirectories(directory);
+        write(material, directory, new HashSet<>());
+    }
+
+    private void write(Material material, Path directory, Set<Material> written) throws IOException {
+        if (!written.add(material)) {
+            return;
+        }
+        Files.write(directory.resolve(material.name() + EXTENSION), tables.get(material));
+        for (Material smaller : needs.get(material)) {
+            write(smaller, directory, written);
+        }
+    }
+
+    /**
+     * Solves a material's table, or returns it if it was solved already
+     *
+     * @return the table's entries, as described in {@link Dtm}
+     */
+    byte[] generate(Material material) {
+        byte[] table = tables.get(material);
+        if (table == null) {
+            table = new Solver(material).solve();
+            tables.put(material, table);
+        }
+        return table;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    //runs a task over every entry of a table, in chunks on the pool, returning once all are done
+    private void forEachChunk(int size, ChunkTask task) {
+        int chunks = Math.min(size, pool.getParallelism() * CHUNKS_PER_THREAD);
+        List<ForkJoinTask<?>> running = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int start = (int) ((long) size * i / chunks);
+            int end = (int) ((long) size * (i + 1) / chunks);
+            running.add(pool.submit(() -> task.run(start, end)));
+        }
+        for (ForkJoinTask<?> chunk : running) {
+            chunk.join();
+        }
+    }
+
+    private interface ChunkTask {
+        void run(int start, int end);
+    }
+
+    //a table that leaves this one: the one a capture or promotion leads to, and where each of its squares comes from
+    private record Exit(Material material, byte[] table, int[] sourceSlots) {
+    }
+
+    //solves one table; the arrays only live as long as the solve
+    private final class Solver {
+        private final Material material;
+        private final int n;
+        private final int[] pieces;
+        private final int[] kingSlots = new int[2];
+        private final byte[] entries;
+        //moves left that stay in the table and haven't been found to lose, plus one if a move out of the table draws
+        private final byte[] movesLeft;
+        //the fewest plies a position can be lost in, from its captures and promotions that the other team wins after
+        private final byte[] lossFloor;
+        //indexed by exit(capturedSlot, promotedSlot, promotion)
+        private final Exit[] exits;
+        private final AtomicInteger maxPlies = new AtomicInteger();
+
+        Solver(Material material) {
+            this.material = material;
+            n = material.pieceCount();
+            pieces = new int[n];
+            for (int slot = 0; slot < n; slot++) {
+                pieces[slot] = material.piece(slot);
+                if (pieces[slot] % 6 == ChessPiece.PieceType.KING.ordinal()) {
+                    kingSlots[pieces[slot] / 6] = slot;
+                }
+            }
+            exits = new Exit[(n + 1) * (n + 1) * PROMOTIONS.length];
+            needs.put(material, findExits());
+            int size = material.tableSize();
+            entries = new byte[size];
+            movesLeft = new byte[size];
+            lossFloor = new byte[size];
+        }
+
+        //solves every smaller table a capture or promotion can lead to, returning them
+        private List<Material> findExits() {
+            List<Material> smaller = new ArrayList<>();
+            for (int captured = -1; captured < n; captured++) {
+                if (captured >= 0 && pieces[captured] % 6 == ChessPiece.PieceType.KING.ordinal()) {
+                    continue;
+                }
+                for (int promoted = -1; promoted < n; promoted++) {
+                    if (promoted >= 0 && (pieces[promoted] % 6 != PAWN || promoted == captured
+                            || (captured >= 0 && pieces[captured] / 6 == pieces[promoted] / 6))) {
+                        continue;
+                    }
+                    if (captured < 0 && promoted < 0) {
+                        continue;
+                    }
+                    int first = promoted < 0 ? 0 : 1;
+                    int last = promoted < 0 ? 0 : PROMOTIONS.length - 1;
+                    for (int promotion = first; promotion <= last; promotion++) {
+                        Exit exit = exitTo(captured, promoted, promotion);
+                        exits[exit(captured, promoted, promotion)] = exit;
+                        if (!smaller.contains(exit.material())) {
+                            smaller.add(exit.material());
+                        }
+                    }
+                }
+            }
+            return smaller;
+        }
+
+        private Exit exitTo(int captured, int promoted, int promotion) {
+            int[] after = new int[n];
+            int count = 0;
+            for (int slot = 0; slot < n; slot++) {
+                if (slot == promoted) {
+                    after[count++] = pieces[slot] / 6 * 6 + PROMOTIONS[promotion].ordinal();
+                } else if (slot != captured) {
+                    after[count++] = pieces[slot];
+                }
+            }
+            Material smaller = Material.of(after, count);
+            int[] sourceSlots = new int[count];
+            boolean[] used = new boolean[n];
+            for (int k = 0; k < count; k++) {
+                for (int slot = 0; slot < n; slot++) {
+                    int piece = slot == promoted ? pieces[slot] / 6 * 6 + PROMOTIONS[promotion].ordinal() : pieces[slot];
+                    if (!used[slot] && slot != captured && piece == smaller.piece(k)) {
+                        used[slot] = true;
+                        sourceSlots[k] = slot;
+                        break;
+                    }
+                }
+            }
+            return new Exit(smaller, generate(smaller), sourceSlots);
+        }
+
+        private int exit(int captured, int promoted, int promotion) {
+            return ((captured + 1) * (n + 1) + promoted + 1) * PROMOTIONS.length + promotion;
+        }
+
+        byte[] solve() {
+            forEachChunk(entries.length, (start, end) -> {
+                Position position = new Position();
+                for (int index = start; index < end; index++) {
+                    score(index, position);
+                }
+            });
+            for (int level = 0; level <= maxPlies.get(); level++) {
+                int code = Dtm.code(level);
+                int plies = level;
+                forEachChunk(entries.length, (start, end) -> {
+                    Position position = new Position();
+                    long repeated = code * LOW_BITS;
+                    for (int index = start; index < end; index++) {
+                        //most entries aren't settled at this ply, so step over eight at a time when none of them are
+                        while ((index & 7) == 0 && index + 8 <= end && !hasByte((long) EIGHT_ENTRIES.get(entries, index), repeated)) {
+                            index += 8;
+                        }
+                        if (index < end && (entries[index] & 0xFF) == code) {
+                            settlePredecessors(index, plies, position);
+                        }
+                    }
+                });
+            }
+            return entries;
+        }
+
+        //sets an entry from its own moves: mate, stalemate, what its captures and promotions lead to, and how many moves stay in the table
+        private void score(int index, Position position) {
+            position.decode(index);
+            if (!position.isValid()) {
+                entries[index] = (byte) Dtm.INVALID;
+                return;
+            }
+            int[] squares = position.squares;
+            int us = position.turn;
+            int them = 1 - us;
+            long own = position.occupancy(us);
+            long occupied = own | position.occupancy(them);
+            int king = kingSlots[us];
+            //squares the king can't go to; sliders see through it, so it can't step back along a check
+            long danger = position.attacksBy(them, occupied & ~Bitboards.bit(squares[king]));
+            boolean inCheck = (danger & Bitboards.bit(squares[king])) != 0;
+            int inTable = 0;
+            int legal = 0;
+            boolean exitDraws = false;
+            int win = Integer.MAX_VALUE;
+            int floor = 0;
+            for (int slot = 0; slot < n; slot++) {
+                if (pieces[slot] / 6 != us) {
+                    continue;
+                }
+                int from = squares[slot];
+                int type = pieces[slot] % 6;
+                long targets = type == PAWN ? pawnTargets(us, from, occupied, occupied & ~own) : attacks(type, from, occupied) & ~own;
+                //if the king is safe with the piece lifted off the board, every move it has is legal, since where it lands can only block or take an attacker
+                boolean free = !inCheck && slot != king && !position.isAttacked(squares[king], them, occupied & ~Bitboards.bit(from));
+                for (; targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    int captured = position.slotAt(to);
+                    squares[slot] = to;
+                    if (captured >= 0) {
+                        squares[captured] = -1;
+                    }
+                    long after = occupied & ~Bitboards.bit(from) | Bitboards.bit(to);
+                    boolean safe = slot == king ? (danger & Bitboards.bit(to)) == 0
+                            : free || !position.isAttacked(squares[king], them, after);
+                    if (safe) {
+                        legal++;
+                        int row = Bitboards.row(to);
+                        boolean promotes = type == PAWN && (row == 1 || row == 8);
+                        if (!promotes && captured < 0) {
+                            inTable++;
+                        } else {
+                            int first = promotes ? 1 : 0;
+                            int last = promotes ? PROMOTIONS.length - 1 : 0;
+                            for (int promotion = first; promotion <= last; promotion++) {
+                                int code = exitCode(exits[exit(captured, promotes ? slot : -1, promotion)], squares, them);
+                                if (Dtm.isLoss(code)) {
+                                    win = Math.min(win, Dtm.plies(code) + 1);
+                                } else if (Dtm.isWin(code)) {
+                                    floor = Math.max(floor, Dtm.plies(code) + 1);
+                                } else {
+                                    exitDraws = true;
+                                }
+                            }
+                        }
+                    }
+                    squares[slot] = from;
+                    if (captured >= 0) {
+                        squares[captured] = to;
+                    }
+                }
+            }
+
+            if (legal == 0) {
+                entries[index] = (byte) (inCheck ? Dtm.code(0) : Dtm.DRAW);
+            } else if (win != Integer.MAX_VALUE) {
+                //the win may be shortened by a move that stays in the table
+                settle(index, win);
+            } else if (inTable == 0 && !exitDraws) {
+                settle(index, floor);
+            } else {
+                movesLeft[index] = (byte) (inTable + (exitDraws ? 1 : 0));
+                lossFloor[index] = (byte) floor;
+            }
+        }
+
+        //the entry a capture or promotion leads to, for the other team to move
+        private int exitCode(Exit exit, int[] squares, int turn) {
+            int index = turn;
+            for (int source : exit.sourceSlots()) {
+                index = index << 6 | squares[source];
+            }
+            return exit.table()[index] & 0xFF;
+        }
+
+        //passes on what a position settled at the given plies means for every position one move before it
+        private void settlePredecessors(int index, int plies, Position position) {
+            position.decode(index);
+            int[] squares = position.squares;
+            int mover = 1 - position.turn;
+            long occupied = position.occupancy(0) | position.occupancy(1);
+            boolean lost = (plies & 1) == 0;
+            for (int slot = 0; slot < n; slot++) {
+                if (pieces[slot] / 6 != mover) {
+                    continue;
+                }
+                int to = squares[slot];
+                int type = pieces[slot] % 6;
+                long origins = type == PAWN ? pawnOrigins(mover, to, occupied) : attacks(type, to, occupied) & ~occupied;
+                //the entry with the other team to move and this piece's square left blank, to add each origin to
+                int shift = 6 * (n - 1 - slot);
+                int blank = (index ^ 1 << 6 * n) & ~(63 << shift);
+                for (; origins != 0; origins &= origins - 1) {
+                    int before = blank | Long.numberOfTrailingZeros(origins) << shift;
+                    if (lost) {
+                        winIn(before, plies + 1);
+                    } else {
+                        loseOneMove(before, plies);
+                    }
+                }
+            }
+        }
+
+        //a position with a move to a lost position wins, unless it already wins as fast
+        private void winIn(int index, int plies) {
+            while (true) {
+                int code = (int) (byte) ENTRIES.getVolatile(entries, index) & 0xFF;
+                if (code == Dtm.INVALID || (code != Dtm.DRAW && !(Dtm.isWin(code) && Dtm.plies(code) > plies))) {
+                    return;
+                }
+                if (ENTRIES.compareAndSet(entries, index, (byte) code, (byte) Dtm.code(raiseMax(plies)))) {
+                    return;
+                }
+            }
+        }
+
+        //one of an unsettled position's moves wins for the other team; when none are left the position is lost
+        private void loseOneMove(int index, int plies) {
+            if ((int) (byte) ENTRIES.getVolatile(entries, index) != Dtm.DRAW) {
+                return;
+            }
+            byte left = (byte) ((byte) ENTRIES.getAndAdd(movesLeft, index, (byte) -1) - 1);
+            if (left == 0) {
+                ENTRIES.setVolatile(entries, index, (byte) Dtm.code(raiseMax(Math.max(plies + 1, lossFloor[index] & 0xFF))));
+            }
+        }
+
+        private void settle(int index, int plies) {
+            entries[index] = (byte) Dtm.code(raiseMax(plies));
+        }
+
+        private int raiseMax(int plies) {
+            if (plies > Dtm.MAX_PLIES) {
+                throw new IllegalStateException(material + " has a mate longer than " + Dtm.MAX_PLIES + " plies");
+            }
+            maxPlies.accumulateAndGet(plies, Math::max);
+            return plies;
+        }
+
+        //one table entry laid out as squares; the generator's scratch space, one per chunk
+        private final class Position {
+            final int[] squares = new int[n];
+            int turn;
+
+            void decode(int index) {
+                for (int slot = n - 1; slot >= 0; slot--) {
+                    squares[slot] = index & 63;
+                    index >>>= 6;
+                }
+                turn = index;
+            }
+
+            //no two pieces on a square, no pawn on its first or last row, and the team not to move isn't in check
+            boolean isValid() {
+                long occupied = 0;
+                for (int slot = 0; slot < n; slot++) {
+                    long bit = Bitboards.bit(squares[slot]);
+                    int row = Bitboards.row(squares[slot]);
+                    if ((occupied & bit) != 0 || (pieces[slot] % 6 == PAWN && (row == 1 || row == 8))) {
+                        return false;
+                    }
+                    occupied |= bit;
+                }
+                return !isAttacked(squares[kingSlots[1 - turn]], turn, occupied);
+            }
+
+            long occupancy(int color) {
+                long occupied = 0;
+                for (int slot = 0; slot < n; slot++) {
+                    if (pieces[slot] / 6 == color && squares[slot] >= 0) {
+                        occupied |= Bitboards.bit(squares[slot]);
+                    }
+                }
+                return occupied;
+            }
+
+            int slotAt(int sq) {
+                for (int slot = 0; slot < n; slot++) {
+                    if (squares[slot] == sq) {
+                        return slot;
+                    }
+                }
+                return -1;
+            }
+
+            //whether any piece of a team still on the board attacks sq
+            boolean isAttacked(int sq, int byColor, long occupied) {
+                for (int slot = 0; slot < n; slot++) {
+                    if (pieces[slot] / 6 == byColor && squares[slot] >= 0 && (attacksFrom(slot, occupied) & Bitboards.bit(sq)) != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            //every square a team's pieces still on the board attack
+            long attacksBy(int color, long occupied) {
+                long attacked = 0;
+                for (int slot = 0; slot < n; slot++) {
+                    if (pieces[slot] / 6 == color && squares[slot] >= 0) {
+                        attacked |= attacksFrom(slot, occupied);
+                    }
+                }
+                return attacked;
+            }
+
+            private long attacksFrom(int slot, long occupied) {
+                int type = pieces[slot] % 6;
+                return type == PAWN ? Bitboards.pawnAttacks(TEAMS[pieces[slot] / 6], squares[slot]) : attacks(type, squares[slot], occupied);
+            }
+        }
+    }
+
+    //whether any byte of word matches the byte repeated through repeated
+    private static boolean hasByte(long word, long repeated) {
+        long diff = word ^ repeated;
+        return ((diff - LOW_BITS) & ~diff & HIGH_BITS) != 0;
+    }
+
+    //squares a piece other than a pawn attacks, by PieceType ordinal (KING, QUEEN, BISHOP, KNIGHT, ROOK)
+    private static long attacks(int type, int sq, long occupied) {
+        return switch (type) {
+            case 0 -> Bitboards.kingAttacks(sq);
+            case 1 -> Bitboards.queenAttacks(sq, occupied);
+            case 2 -> Bitboards.bishopAttacks(sq, occupied);
+            case 3 -> Bitboards.knightAttacks(sq);
+            case 4 -> Bitboards.rookAttacks(sq, occupied);
+            default -> throw new IllegalArgumentException("Pawns move and attack differently");
+        };
+    }
+
+    private static long pawnTargets(int color, int from, long occupied, long enemies) {
+        int forward = color == WHITE ? 8 : -8;
+        long targets = Bitboards.pawnAttacks(TEAMS[color], from) & enemies;
+        int one = from + forward;
+        if ((occupied & Bitboards.bit(one)) == 0) {
+            targets |= Bitboards.bit(one);
+            int two = one + forward;
+            if (Bitboards.row(from) == (color == WHITE ? 2 : 7) && (occupied & Bitboards.bit(two)) == 0) {
+                targets |= Bitboards.bit(two);
+            }
+        }
+        return targets;
+    }
+
+    //squares a pawn now on to could have pushed from, without capturing
+    private static long pawnOrigins(int color, int to, long occupied) {
+        int back = color == WHITE ? -8 : 8;
+        int row = Bitboards.row(to);
+        long origins = 0;
+        int one = to + back;
+        if ((color == WHITE ? row >= 3 : row <= 6) && (occupied & Bitboards.bit(one)) == 0) {
+            origins |= Bitboards.bit(one);
+            int two = one + back;
+            if (row == (color == WHITE ? 4 : 5) && (occupied & Bitboards.bit(two)) == 0) {
+                origins |= Bitboards.bit(two);
+            }
+        }
+        return origins;
+    }
+}
@@ -0,0 +1,16 @@
+package chess.tablebase;
+
+/**
+ * What a tablebase knows about a position, from the point of view of the team to move
+ *
+ * @param outcome     how the game ends with best play
+ * @param pliesToMate plies until checkmate with best play, for a win or loss; 0 for a draw
+ */
+public record TablebaseResult(Outcome outcome, int pliesToMate) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+}
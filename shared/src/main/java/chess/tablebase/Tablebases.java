@@ -0,0 +1,177 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks positions up in the distance-to-mate tables written by {@link TablebaseGenerator}.
+ * <p>
+ * Every table in a directory is memory-mapped when it is opened, and a lookup reads the one
+ * byte for the position straight from the mapping, so tables take no heap and are shared with
+ * every other process reading the same files. A position whose pieces are the other way round
+ * from a table, like KKQ when there is a KQK table, is looked up with the board turned over and
+ * the teams swapped.
+ * <p>
+ * Tables leave out castling, en passant and the fifty-move rule, so positions with castling
+ * rights or an en passant capture available aren't looked up. Tablebases are safe to use from
+ * any number of threads at once.
+ */
+public final class Tablebases {
+
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final Map<Material, ByteBuffer> tables;
+
+    private Tablebases(Map<Material, ByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table in a directory. The mappings stay valid for as long as the tablebases
+     * are reachable, so there is nothing to close.
+     *
+     * @param directory where the {@value TablebaseGenerator#EXTENSION} files are
+     * @throws IOException              if the directory or a table can't be read
+     * @throws IllegalArgumentException if a table is named for bad material or is the wrong size
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        Map<Material, ByteBuffer> tables = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TablebaseGenerator.EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Material material = Material.of(name.substring(0, name.length() - TablebaseGenerator.EXTENSION.length()));
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    if (channel.size() != material.tableSize()) {
+                        throw new IllegalArgumentException("Tablebase " + file + " should be " + material.tableSize()
+                                + " bytes, not " + channel.size());
+                    }
+                    tables.put(material, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+            }
+        }
+        return new Tablebases(tables);
+    }
+
+    /**
+     * @return the material of every table, as named
+     */
+    public Set<Material> materials() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    /**
+     * Looks up the game's current position
+     *
+     * @return the position's outcome and distance to mate, or null if no table covers it or it
+     * can't come up in a game
+     */
+    public TablebaseResult probe(ChessGame game) {
+        int code = lookUp(game);
+        if (code < 0 || code == Dtm.INVALID) {
+            return null;
+        }
+        if (code == Dtm.DRAW) {
+            return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+        }
+        TablebaseResult.Outcome outcome = Dtm.isWin(code) ? TablebaseResult.Outcome.WIN : TablebaseResult.Outcome.LOSS;
+        return new TablebaseResult(outcome, Dtm.plies(code));
+    }
+
+    /**
+     * Finds the best move in the game's current position: the fastest mate when it wins, the
+     * longest defence when it loses, and a move that keeps the draw otherwise. The game is
+     * played forward and taken back in place, so it ends where it started. A move into material
+     * that can't mate, like a capture leaving kings alone, counts as a draw even without its table.
+     *
+     * @return the move, or null if no table covers the position or there is no legal move
+     */
+    public ChessMove bestMove(ChessGame game) {
+        TablebaseResult result = probe(game);
+        if (result == null) {
+            return null;
+        }
+        ChessMove best = null;
+        int bestRank = Integer.MIN_VALUE;
+        for (ChessMove move : game.allValidMoves(game.getTeamTurn())) {
+            long undo = game.makeMoveUnchecked(move);
+            TablebaseResult reply = probeReply(game);
+            game.unmakeMove(undo);
+            if (reply != null && rank(reply) > bestRank) {
+                best = move;
+                bestRank = rank(reply);
+            }
+        }
+        return best;
+    }
+
+    //looks up the position a move leads to, counting one no table covers as a draw when the move
+    //left too little material to mate with, so a capture into KK, KBK or KNK needs no table of its own
+    private TablebaseResult probeReply(ChessGame game) {
+        TablebaseResult reply = probe(game);
+        if (reply == null && game.getBoard().hasInsufficientMaterial()) {
+            return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+        }
+        return reply;
+    }
+
+    //how good a position is for the team that just moved into it: faster mates first, then draws, then slower losses
+    private static int rank(TablebaseResult reply) {
+        return switch (reply.outcome()) {
+            case LOSS -> 1000 - reply.pliesToMate();
+            case DRAW -> 0;
+            case WIN -> reply.pliesToMate() - 1000;
+        };
+    }
+
+    //the table entry for the game's position, or -1 if no table covers it
+    private int lookUp(ChessGame game) {
+        if (game.getCastlingRights() != 0 || game.getEnPassantSquare() >= 0) {
+            return -1;
+        }
+        ChessBoard board = game.getBoard();
+        Material material = Material.of(board);
+        if (material == null) {
+            return -1;
+        }
+        ByteBuffer table = tables.get(material);
+        if (table != null) {
+            return table.get(material.index(board, game.getTeamTurn())) & 0xFF;
+        }
+        Material flipped = material.flipped();
+        table = tables.get(flipped);
+        if (table != null) {
+            ChessGame.TeamColor turn = TEAMS[1 - game.getTeamTurn().ordinal()];
+            return table.get(flipped.index(flip(board), turn)) & 0xFF;
+        }
+        return -1;
+    }
+
+    //the board turned over with the teams swapped, so white's pieces stand where black's did
+    private static ChessBoard flip(ChessBoard board) {
+        ChessBoard flipped = new ChessBoard();
+        for (long occupied = board.getOccupied(); occupied != 0; occupied &= occupied - 1) {
+            int sq = Long.numberOfTrailingZeros(occupied);
+            int piece = board.pieceAt(sq);
+            int mirrored = sq ^ 56;
+            flipped.addPiece(ChessPosition.of(mirrored / 8 + 1, mirrored % 8 + 1),
+                    ChessPiece.of(TEAMS[1 - piece / 6], TYPES[piece % 6]));
+        }
+        return flipped;
+    }
+}
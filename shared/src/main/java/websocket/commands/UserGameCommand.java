@@ -21,6 +21,9 @@ public class UserGameCommand {
 
     ChessMove move;
 
+    //a MAKE_MOVE may give its move as UCI or SAN text (e2e4, Nf3) instead of a move object
+    String notation;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
         this.authToken = authToken;
@@ -39,6 +42,12 @@ public class UserGameCommand {
     public void setMove(ChessMove move){
         this.move = move;
     }
+    public String getNotation() {
+        return notation;
+    }
+    public void setNotation(String notation) {
+        this.notation = notation;
+    }
     public CommandType getCommandType() {
         return commandType;
     }
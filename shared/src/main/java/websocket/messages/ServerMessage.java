@@ -16,6 +16,8 @@ public class ServerMessage {
     public ChessGame game;
     public String message;
     public String errorMessage;
+    //static score sent with LOAD_GAME for an eval bar, in centipawns with white positive
+    public Integer evaluation;
 
     public enum ServerMessageType {
         LOAD_GAME,
@@ -43,6 +45,10 @@ public class ServerMessage {
         return errorMessage;
     }
 
+    public Integer getEvaluation() {
+        return evaluation;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
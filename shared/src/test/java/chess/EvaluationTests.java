@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTests {
+
+    private static ChessBoard rebuilt(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                copy.addPiece(position, board.getPiece(position));
+            }
+        }
+        return copy;
+    }
+
+    @Test
+    void startingPositionIsEven() {
+        assertEquals(0, new ChessGame().evaluate());
+    }
+
+    @Test
+    void centralizedKnightScoresBetter() {
+        ChessBoard rim = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |N| | | |K| | | |
+                """);
+        ChessBoard center = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertTrue(center.evaluate() > rim.evaluate());
+        assertTrue(rim.evaluate() > 0);
+    }
+
+    @Test
+    void mirroredPositionScoresOpposite() {
+        ChessBoard white = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |P| | | | | |
+                | | | | | |B| | |
+                | | | | | | | | |
+                | | | |Q|K| | | |
+                """);
+        ChessBoard black = TestUtilities.loadBoard("""
+                | | | |q|k| | | |
+                | | | | | | | | |
+                | | | | | |b| | |
+                | | |p| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertEquals(white.evaluate(), -black.evaluate());
+    }
+
+    @Test
+    void incrementalScoreMatchesRebuiltBoard() {
+        Random random = new Random(18);
+        for (int game = 0; game < 20; game++) {
+            ChessGame chessGame = new ChessGame();
+            MoveList moves = new MoveList();
+            for (int ply = 0; ply < 120; ply++) {
+                moves.clear();
+                chessGame.generateMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                chessGame.makeMoveUnchecked(moves.get(random.nextInt(moves.size())));
+                assertEquals(rebuilt(chessGame.getBoard()).evaluate(), chessGame.evaluate());
+            }
+            while (chessGame.undo() != null) {
+                assertEquals(rebuilt(chessGame.getBoard()).evaluate(), chessGame.evaluate());
+            }
+            assertEquals(0, chessGame.evaluate());
+        }
+    }
+}
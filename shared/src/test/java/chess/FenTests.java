@@ -0,0 +1,99 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    //"position 5" from the Chess Programming Wiki perft suite
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    void startingPosition() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().positionKey(), game.positionKey());
+        assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    void roundTrip() {
+        String[] positions = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                POSITION_5,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "4k3/8/8/8/8/8/8/4K2R b K - 17 63"
+        };
+        for (String fen : positions) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    void readsGameState() {
+        ChessGame game = ChessGame.fromFen(POSITION_5);
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertEquals(1, game.getHalfmoveClock());
+        assertEquals(44, Perft.perft(game, 1));
+        assertEquals(1486, Perft.perft(game, 2));
+        assertEquals(62379, Perft.perft(game, 3));
+    }
+
+    @Test
+    void playedGameMatchesParsedGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 6), new ChessPosition(5, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3";
+        assertEquals(fen, game.toFen());
+        ChessGame parsed = ChessGame.fromFen(fen);
+        assertEquals(game, parsed);
+        assertEquals(game.positionKey(), parsed.positionKey());
+    }
+
+    @Test
+    void dropsUnusableEnPassantAndCastling() {
+        //no white pawn can take on e6, and the h1 rook has moved
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBR1 w KQkq e6 0 2");
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBR1 w Qkq - 0 2", game.toFen());
+    }
+
+    @Test
+    void clocksAreOptional() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+        assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", game.toFen());
+    }
+
+    @Test
+    void boardPlacement() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", board.toFen());
+        assertEquals(board, ChessBoard.fromFen(Fen.START));
+        assertEquals(board.positionKey(), ChessBoard.fromFen(board.toFen()).positionKey());
+    }
+
+    @Test
+    void rejectsBadFen() {
+        String[] bad = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0"
+        };
+        for (String fen : bad) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTests {
+
+    @Test
+    void startingPositionIsNormal() {
+        assertEquals(ChessGame.GameStatus.NORMAL, new ChessGame().evaluateStatus());
+    }
+
+    @Test
+    void check() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4R1K1 b - - 0 1");
+        assertEquals(ChessGame.GameStatus.CHECK, game.evaluateStatus());
+    }
+
+    @Test
+    void checkmate() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertDoesNotThrow(() -> game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null)));
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus());
+    }
+
+    @Test
+    void stalemate() {
+        ChessGame game = ChessGame.fromFen("k7/8/1Q6/8/8/8/8/6K1 b - - 0 1");
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.evaluateStatus());
+        assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void allValidMovesCoversEveryPiece() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, game.allValidMoves(ChessGame.TeamColor.WHITE).size());
+        assertEquals(20, game.allValidMoves(ChessGame.TeamColor.BLACK).size());
+    }
+
+    @Test
+    void cachedAnswersFollowTheBoard() {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus());
+        assertEquals(2, game.validMoves(new ChessPosition(1, 2)).size());
+
+        //changing the board through getBoard() changes its key, so stale answers aren't served
+        game.getBoard().addPiece(new ChessPosition(3, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(1, game.validMoves(new ChessPosition(1, 2)).size());
+
+        game.setBoard(TestUtilities.loadBoard("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |Q| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.evaluateStatus());
+        assertTrue(game.allValidMoves(ChessGame.TeamColor.BLACK).isEmpty());
+    }
+
+    @Test
+    void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove[] knightShuffle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+        };
+        for (ChessMove move : knightShuffle) {
+            game.makeMove(move);
+        }
+        assertEquals(1, game.repetitions());
+        assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus());
+        for (ChessMove move : knightShuffle) {
+            game.makeMove(move);
+        }
+        assertEquals(2, game.repetitions());
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.evaluateStatus());
+
+        game.undo();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus());
+    }
+
+    @Test
+    void pawnMoveEndsRepetitionScan() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        assertEquals(2, game.getHalfmoveClock());
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+        game.undo();
+        assertEquals(2, game.getHalfmoveClock());
+    }
+
+    @Test
+    void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(2, 1), null));
+        assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.evaluateStatus());
+    }
+
+    @Test
+    void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+        game.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null));
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus());
+    }
+
+    @Test
+    void insufficientMaterial() {
+        ChessGame bishopsOnOneColor = ChessGame.fromFen("4k3/8/8/2b5/8/8/8/2B1K3 w - - 0 1");
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, bishopsOnOneColor.evaluateStatus());
+
+        ChessGame loneKnight = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2K3 b - - 0 1");
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, loneKnight.evaluateStatus());
+
+        ChessGame twoKnights = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2K1N1 b - - 0 1");
+        assertEquals(ChessGame.GameStatus.NORMAL, twoKnights.evaluateStatus());
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryTests {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    //1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O
+    private static ChessGame italianGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 2, 6, 3));
+        game.makeMove(move(1, 6, 4, 3));
+        game.makeMove(move(8, 6, 5, 3));
+        game.makeMove(move(1, 5, 1, 7));
+        return game;
+    }
+
+    @Test
+    void historyRecordsEveryMove() throws InvalidMoveException {
+        ChessGame game = italianGame();
+        assertEquals(7, game.historySize());
+        assertEquals(move(2, 5, 4, 5), game.moveAt(0));
+        assertEquals(move(1, 5, 1, 7), game.moveAt(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.moveAt(7));
+    }
+
+    @Test
+    void undoTakesBackCastling() throws InvalidMoveException {
+        ChessGame game = italianGame();
+        ChessGame beforeCastling = italianGame();
+        beforeCastling.undo();
+
+        assertEquals(move(1, 5, 1, 7), game.undo());
+        assertEquals(6, game.historySize());
+        assertEquals(beforeCastling, game);
+        assertEquals(beforeCastling.positionKey(), game.positionKey());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertTrue(game.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 7)));
+    }
+
+    @Test
+    void undoEverything() throws InvalidMoveException {
+        ChessGame game = italianGame();
+        for (int i = 0; i < 7; i++) {
+            assertNotNull(game.undo());
+        }
+        assertNull(game.undo());
+        assertEquals(0, game.historySize());
+        assertEquals(new ChessGame(), game);
+        assertEquals(TestUtilities.defaultBoard(), game.getBoard());
+    }
+
+    @Test
+    void replayLeavesTheGameAlone() throws InvalidMoveException {
+        ChessGame game = italianGame();
+        ChessGame start = game.replay(0);
+        ChessGame afterTwo = game.replay(2);
+
+        assertEquals(new ChessGame(), start);
+        assertEquals(2, afterTwo.historySize());
+        assertNotNull(afterTwo.getBoard().getPiece(new ChessPosition(5, 5)));
+        assertNull(afterTwo.getBoard().getPiece(new ChessPosition(3, 6)));
+        assertEquals(7, game.historySize());
+        assertEquals(italianGame(), game);
+
+        afterTwo.makeMove(move(1, 7, 3, 6));
+        assertEquals(game.replay(3), afterTwo);
+        assertThrows(IndexOutOfBoundsException.class, () -> game.replay(8));
+    }
+
+    @Test
+    void setBoardClearsHistory() throws InvalidMoveException {
+        ChessGame game = italianGame();
+        game.setBoard(TestUtilities.defaultBoard());
+        assertEquals(0, game.historySize());
+        assertNull(game.undo());
+    }
+}
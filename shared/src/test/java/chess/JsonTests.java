@@ -0,0 +1,147 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTests {
+
+    //the board after 1. e4 e5 2. Ke2, as Gson wrote it before the board was backed by bitboards
+    private static final String BOARD_JSON = "{\"squares\":["
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"QUEEN\"},null,"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"}],"
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},"
+            + "{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"}],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},null,null,null],"
+            + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"}],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"},{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},{\"pieceColor\":\"BLACK\",\"type\":\"QUEEN\"},"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},"
+            + "{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"}]]}";
+    //the same game, as the server stored it in the database before games were stored with GameCodec
+    private static final String GAME_JSON = "{\"currentTeamColor\":\"BLACK\",\"currentBoard\":" + BOARD_JSON + "}";
+    private static final String PLACEMENT = "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPPKPPP/RNBQ1BNR";
+
+    private final Gson gson = new Gson();
+
+    private static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+    }
+
+    @Test
+    void boardKeepsItsJson() {
+        assertEquals(BOARD_JSON, gson.toJson(ChessBoard.fromFen(PLACEMENT)));
+    }
+
+    @Test
+    void boardIsRebuiltFromItsPieces() {
+        ChessBoard expected = ChessBoard.fromFen(PLACEMENT);
+        ChessBoard board = gson.fromJson(BOARD_JSON, ChessBoard.class);
+        assertEquals(expected, board);
+        assertEquals(PLACEMENT, board.toFen());
+        assertEquals(expected.positionKey(), board.positionKey());
+        assertEquals(expected.evaluate(), board.evaluate());
+        assertEquals(expected.getOccupied(), board.getOccupied());
+    }
+
+    @Test
+    void boardIgnoresSentDerivedState() {
+        //a key or occupancy that doesn't match the pieces is dropped rather than trusted
+        String json = "{\"key\":12345,\"occupancy\":[-1,-1],\"squares\":[[null,null,null,null,"
+                + "{\"pieceColor\":\"WHITE\",\"type\":\"KING\"}]]}";
+        ChessBoard board = gson.fromJson(json, ChessBoard.class);
+        assertEquals(ChessBoard.fromFen("8/8/8/8/8/8/8/4K3").positionKey(), board.positionKey());
+        assertEquals(Bitboards.bit(4), board.getOccupied());
+    }
+
+    @Test
+    void gameSendsOnlyTheHistoryInUse() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 2, 5, 4, 5);
+        move(game, 7, 5, 5, 5);
+        move(game, 1, 7, 3, 6);
+        String json = gson.toJson(game);
+        assertFalse(json.contains("positionKeys"));
+        //three moves, where the history array behind them has room for sixteen
+        assertEquals(3, gson.fromJson(json, JsonObject.class).getAsJsonArray("history").size());
+    }
+
+    @Test
+    void gameRoundTripKeepsItsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 1, 7, 3, 6);
+        move(game, 8, 7, 6, 6);
+        move(game, 3, 6, 1, 7);
+        move(game, 6, 6, 8, 7);
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(game, read);
+        assertEquals(game.toFen(), read.toFen());
+        assertEquals(4, read.historySize());
+        assertEquals(1, read.repetitions());
+        assertEquals(game.moveAt(2), read.moveAt(2));
+        for (int ply = 0; ply < 4; ply++) {
+            read.undo();
+        }
+        assertEquals(new ChessGame(), read);
+    }
+
+    @Test
+    void gameRoundTripTakesBackEveryKindOfMove() throws InvalidMoveException {
+        String start = "r3k3/1P6/8/8/3pP3/8/8/R3K3 b Qq e3 0 1";
+        ChessGame game = ChessGame.fromFen(start);
+        for (String uci : new String[]{"d4e3", "b7a8q", "e8e7", "e1c1"}) {
+            game.makeMove(ChessMove.fromUci(uci));
+        }
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        for (int ply = 0; ply < 4; ply++) {
+            read.undo();
+        }
+        assertEquals(ChessGame.fromFen(start), read);
+    }
+
+    @Test
+    void gameHistoryMustMatchItsBoard() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 1, 7, 3, 6);
+        JsonObject json = gson.toJsonTree(game).getAsJsonObject();
+        JsonArray history = json.getAsJsonArray("history");
+        long record = history.get(0).getAsLong();
+
+        //the record says a queen went to f3, where the board has the knight
+        long queen = ChessPiece.index(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        history.set(0, gson.toJsonTree((record & ~(15L << 20)) | (queen << 20)));
+        assertThrows(JsonParseException.class, () -> gson.fromJson(json, ChessGame.class));
+
+        //the record says the knight took a white pawn on f3
+        long pawn = ChessPiece.index(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        history.set(0, gson.toJsonTree(record | ((pawn + 1) << 24)));
+        assertThrows(JsonParseException.class, () -> gson.fromJson(json, ChessGame.class));
+    }
+
+    @Test
+    void readsGamesSavedBeforeBitboards() {
+        ChessGame game = gson.fromJson(GAME_JSON, ChessGame.class);
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(ChessBoard.fromFen(PLACEMENT), game.getBoard());
+        //the white king has left its square, so only black can still castle
+        assertEquals(PLACEMENT + " b kq - 0 1", game.toFen());
+        assertEquals(ChessGame.fromFen(PLACEMENT + " b kq - 0 1").positionKey(), game.positionKey());
+        assertEquals(0, game.historySize());
+        assertEquals(29, game.allValidMoves(ChessGame.TeamColor.BLACK).size());
+    }
+}
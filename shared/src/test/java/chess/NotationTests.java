@@ -0,0 +1,132 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotationTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static String san(String fen, String uci) {
+        return ChessMove.fromUci(uci).toSan(ChessGame.fromFen(fen));
+    }
+
+    @Test
+    void uciRoundTrip() {
+        ChessMove move = ChessMove.fromUci("e2e4");
+        assertEquals(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null), move);
+        assertEquals("e2e4", move.toUci());
+
+        ChessMove promotion = ChessMove.fromUci("e7e8q");
+        assertEquals(ChessPiece.PieceType.QUEEN, promotion.getPromotionPiece());
+        assertEquals("e7e8q", promotion.toUci());
+        assertEquals("b2a1n", ChessMove.fromUci("b2a1n").toUci());
+    }
+
+    @Test
+    void rejectsKingAndPawnPromotionsInUci() {
+        ChessPosition from = new ChessPosition(7, 5);
+        ChessPosition to = new ChessPosition(8, 5);
+        assertEquals("e7e8r", new ChessMove(from, to, ChessPiece.PieceType.ROOK).toUci());
+        assertEquals("e7e8b", new ChessMove(from, to, ChessPiece.PieceType.BISHOP).toUci());
+        assertThrows(IllegalArgumentException.class, () -> new ChessMove(from, to, ChessPiece.PieceType.KING).toUci());
+        assertThrows(IllegalArgumentException.class, () -> new ChessMove(from, to, ChessPiece.PieceType.PAWN).toUci());
+    }
+
+    @Test
+    void rejectsBadUci() {
+        for (String uci : new String[]{"", "e2", "e2e9", "i2e4", "e7e8k", "e7e8qq", "e2-e4"}) {
+            assertThrows(IllegalArgumentException.class, () -> ChessMove.fromUci(uci), uci);
+        }
+    }
+
+    @Test
+    void writesSan() {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        assertEquals("e4", san(start, "e2e4"));
+        assertEquals("Nf3", san(start, "g1f3"));
+        assertEquals("O-O", san(KIWIPETE, "e1g1"));
+        assertEquals("O-O-O", san(KIWIPETE, "e1c1"));
+        assertEquals("Bxa6", san(KIWIPETE, "e2a6"));
+        assertEquals("dxe6", san(KIWIPETE, "d5e6"));
+        assertEquals("Qxf6", san(KIWIPETE, "f3f6"));
+        assertEquals("Nxd7", san(KIWIPETE, "e5d7"));
+        assertEquals("Nb5", san(KIWIPETE, "c3b5"));
+    }
+
+    @Test
+    void disambiguates() {
+        //knights on c3 and g3 both reach e4
+        assertEquals("Nce4", san("4k3/8/8/8/8/2N3N1/8/4K3 w - - 0 1", "c3e4"));
+        //rooks on a1 and a5 share a column
+        assertEquals("R1a3", san("4k3/8/8/R7/8/8/8/R3K3 w - - 0 1", "a1a3"));
+        //queens on a1, a3 and c1 all reach b2
+        assertEquals("Qa1b2", san("4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1", "a1b2"));
+    }
+
+    @Test
+    void writesChecksMatesAndPromotions() {
+        assertEquals("Rd8#", san("6k1/5ppp/8/8/8/8/8/3RK3 w - - 0 1", "d1d8"));
+        assertEquals("Rd7", san("6k1/5ppp/8/8/8/8/8/3RK3 w - - 0 1", "d1d7"));
+        assertEquals("e8=Q", san("8/4P3/8/8/8/8/k7/4K3 w - - 0 1", "e7e8q"));
+        assertEquals("e8=Q+", san("8/4P3/8/8/k7/8/8/4K3 w - - 0 1", "e7e8q"));
+        assertEquals("e8=N", san("8/4P3/8/8/8/8/k7/4K3 w - - 0 1", "e7e8n"));
+        assertEquals("exd6", san("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", "e5d6"));
+        assertEquals("Qh4#", san("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq - 0 2", "d8h4"));
+    }
+
+    @Test
+    void readsSan() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(ChessMove.fromUci("e1g1"), ChessMove.fromSan("O-O", game));
+        assertEquals(ChessMove.fromUci("e1c1"), ChessMove.fromSan("0-0-0", game));
+        assertEquals(ChessMove.fromUci("c3b5"), ChessMove.fromSan("Nb5", game));
+        assertEquals(ChessMove.fromUci("g3e4"),
+                ChessMove.fromSan("Nge4", ChessGame.fromFen("4k3/8/8/8/8/2N3N1/8/4K3 w - - 0 1")));
+        assertEquals(ChessMove.fromUci("e5d7"), ChessMove.fromSan("Nxd7", game));
+        assertEquals(ChessMove.fromUci("d5e6"), ChessMove.fromSan("dxe6!?", game));
+        assertEquals(ChessMove.fromUci("g2h3"), ChessMove.fromSan("gxh3", game));
+
+        ChessGame promotion = ChessGame.fromFen("8/4P3/8/8/8/8/k7/4K3 w - - 0 1");
+        assertEquals(ChessMove.fromUci("e7e8q"), ChessMove.fromSan("e8=Q+", promotion));
+        assertEquals(ChessMove.fromUci("e7e8r"), ChessMove.fromSan("e8R", promotion));
+    }
+
+    @Test
+    void rejectsBadSan() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        for (String san : new String[]{"", "e5", "Kf3", "Zf3", "N", "O-O-O-O", "e7e8"}) {
+            assertThrows(IllegalArgumentException.class, () -> ChessMove.fromSan(san, game), san);
+        }
+        //either knight could go to e4
+        assertThrows(IllegalArgumentException.class,
+                () -> ChessMove.fromSan("Ne4", ChessGame.fromFen("4k3/8/8/8/8/2N3N1/8/4K3 w - - 0 1")));
+        assertThrows(IllegalArgumentException.class, () -> ChessMove.fromUci("e2e5").toSan(new ChessGame()));
+        //a pawn reaching the last row has to say what it promotes to
+        assertThrows(IllegalArgumentException.class,
+                () -> ChessMove.fromSan("e8", ChessGame.fromFen("8/4P3/8/8/8/8/k7/4K3 w - - 0 1")));
+    }
+
+    @Test
+    void everyLegalMoveReadsBackFromItsSan() {
+        String[] positions = {
+                KIWIPETE,
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+        };
+        for (String fen : positions) {
+            ChessGame game = ChessGame.fromFen(fen);
+            Set<String> written = new HashSet<>();
+            for (ChessMove move : game.allValidMoves(game.getTeamTurn())) {
+                String san = move.toSan(game);
+                assertTrue(written.add(san), san);
+                assertEquals(move, ChessMove.fromSan(san, game), san);
+            }
+            assertEquals(fen, game.toFen());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTests {
+
+    @Test
+    void startingPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.perft(game, 1));
+        assertEquals(400, Perft.perft(game, 2));
+        assertEquals(8902, Perft.perft(game, 3));
+        assertEquals(197281, Perft.perft(game, 4));
+        //the first depth with en passant captures in it
+        assertEquals(4865609, Perft.perft(game, 5));
+    }
+
+    @Test
+    void castlingAndPromotions() {
+        //"Kiwipete" from the Chess Programming Wiki perft suite
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(48, Perft.perft(game, 1));
+        assertEquals(2039, Perft.perft(game, 2));
+        assertEquals(97862, Perft.perft(game, 3));
+    }
+
+    @Test
+    void enPassantDiscoveredChecks() {
+        //"position 3" from the Chess Programming Wiki perft suite
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        assertEquals(14, Perft.perft(game, 1));
+        assertEquals(191, Perft.perft(game, 2));
+        assertEquals(2812, Perft.perft(game, 3));
+        assertEquals(43238, Perft.perft(game, 4));
+        assertEquals(674624, Perft.perft(game, 5));
+    }
+
+    @Test
+    void middlegameWithPins() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1");
+        assertEquals(46, Perft.perft(game, 1));
+        assertEquals(2079, Perft.perft(game, 2));
+        assertEquals(89890, Perft.perft(game, 3));
+    }
+
+    @Test
+    void perftLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        long key = game.positionKey();
+        Perft.perft(game, 3);
+        assertEquals(key, game.positionKey());
+        assertEquals(TestUtilities.defaultBoard(), game.getBoard());
+    }
+}
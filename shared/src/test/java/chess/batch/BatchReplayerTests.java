@@ -0,0 +1,152 @@
+package chess.batch;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.pgn.PgnReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchReplayerTests {
+
+    //random legal games written in SAN, each with the FEN it should end on as its id
+    private static List<GameRecord> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        List<GameRecord> games = new ArrayList<>();
+        MoveList moveList = new MoveList();
+        for (int i = 0; i < count; i++) {
+            ChessGame game = new ChessGame();
+            List<String> moves = new ArrayList<>();
+            int length = random.nextInt(80);
+            for (int ply = 0; ply < length; ply++) {
+                moveList.clear();
+                game.generateMoves(moveList);
+                if (moveList.isEmpty()) {
+                    break;
+                }
+                ChessMove move = Move.toChessMove(moveList.get(random.nextInt(moveList.size())));
+                moves.add(move.toSan(game));
+                game.makeMoveUnchecked(move);
+            }
+            games.add(new GameRecord(game.toFen(), null, moves));
+        }
+        return games;
+    }
+
+    @Test
+    void replaysValidGames() {
+        List<GameRecord> games = List.of(
+                new GameRecord("fool's mate", null, List.of("f3", "e5", "g4", "Qh4#")),
+                new GameRecord("uci", null, List.of("e2e4", "e7e5", "g1f3")),
+                new GameRecord("mixed", "4k3/P7/8/8/8/8/8/4K3 w - - 0 1", List.of("a7a8q", "Kd7", "Qb7+")));
+        try (BatchReplayer replayer = new BatchReplayer(2)) {
+            List<ReplayResult> results = replayer.replayAll(games);
+
+            assertEquals("fool's mate", results.get(0).id());
+            assertTrue(results.get(0).isValid());
+            assertEquals(ChessGame.GameStatus.CHECKMATE, results.get(0).status());
+            assertEquals(-1, results.get(0).illegalMove());
+
+            assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+                    results.get(1).game().toFen());
+            assertEquals(ChessGame.GameStatus.NORMAL, results.get(1).status());
+
+            assertEquals(ChessGame.GameStatus.CHECK, results.get(2).status());
+            assertEquals(3, results.get(2).game().historySize());
+        }
+    }
+
+    @Test
+    void reportsTheFirstIllegalMove() {
+        List<GameRecord> games = List.of(
+                new GameRecord("illegal", null, List.of("e4", "e5", "Ke3", "Nc6")),
+                new GameRecord("after mate", null, List.of("f3", "e5", "g4", "Qh4#", "a3")),
+                new GameRecord("garbage", null, List.of("e4", "zz9")),
+                new GameRecord("bad fen", "not a position", List.of("e4")));
+        try (BatchReplayer replayer = new BatchReplayer(2)) {
+            List<ReplayResult> results = replayer.replayAll(games);
+
+            assertFalse(results.get(0).isValid());
+            assertEquals(2, results.get(0).illegalMove());
+            assertEquals(2, results.get(0).game().historySize());
+
+            assertEquals(4, results.get(1).illegalMove());
+            assertEquals(ChessGame.GameStatus.CHECKMATE, results.get(1).status());
+
+            assertEquals(1, results.get(2).illegalMove());
+            assertNotNull(results.get(2).error());
+
+            assertNull(results.get(3).game());
+            assertEquals(-1, results.get(3).illegalMove());
+            assertFalse(results.get(3).isValid());
+        }
+    }
+
+    @Test
+    void brokenRecordsDontStopTheBatch() {
+        List<GameRecord> games = List.of(
+                new GameRecord("no moves", null, null),
+                new GameRecord("null move", null, Arrays.asList("e4", null, "Nf3")),
+                new GameRecord("fine", null, List.of("e4", "e5")));
+        try (BatchReplayer replayer = new BatchReplayer(2)) {
+            List<ReplayResult> results = replayer.replayAll(games);
+
+            assertFalse(results.get(0).isValid());
+            assertEquals(0, results.get(0).game().historySize());
+
+            assertFalse(results.get(1).isValid());
+            assertEquals(1, results.get(1).illegalMove());
+            assertNotNull(results.get(1).error());
+
+            assertTrue(results.get(2).isValid());
+        }
+    }
+
+    @Test
+    void manyGamesComeBackInOrder() {
+        List<GameRecord> games = randomGames(BatchReplayer.IN_FLIGHT + 500, 23);
+        List<ReplayResult> results = new ArrayList<>();
+        try (BatchReplayer replayer = new BatchReplayer(4)) {
+            assertEquals(games.size(), replayer.replayAll(games.iterator(), results::add));
+        }
+        assertEquals(games.size(), results.size());
+        for (ReplayResult result : results) {
+            assertTrue(result.isValid(), result.error());
+            assertEquals(result.id(), result.game().toFen());
+        }
+    }
+
+    @Test
+    void replaysPgn() throws IOException {
+        String pgn = """
+                [Event "One"]
+
+                1. e4 e5 2. Nf3 *
+
+                [Event "Two"]
+                [SetUp "1"]
+                [FEN "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"]
+
+                1. e4 Kd7 2. Ke2 Ke2 1/2-1/2
+                """;
+        List<ReplayResult> results = new ArrayList<>();
+        try (BatchReplayer replayer = new BatchReplayer(2);
+             PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            assertEquals(2, replayer.replayPgn(reader, results::add));
+        }
+        assertEquals("1", results.get(0).id());
+        assertTrue(results.get(0).isValid());
+        assertEquals(3, results.get(0).game().historySize());
+        assertEquals("2", results.get(1).id());
+        assertEquals(3, results.get(1).illegalMove());
+    }
+}
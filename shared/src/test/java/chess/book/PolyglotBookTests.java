@@ -0,0 +1,156 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolyglotBookTests {
+
+    private static final String CASTLING_FEN = "r3k2r/pppq1ppp/2npbn2/2b1p3/2B1P3/2NPBN2/PPPQ1PPP/R3K2R w KQkq - 0 1";
+
+    @TempDir
+    static Path directory;
+    private static PolyglotKeys keys;
+    private static PolyglotBook book;
+
+    @BeforeAll
+    static void writeBook() throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        keys = PolyglotKeys.STANDARD;
+
+        long start = keys.hash(new ChessGame());
+        long castling = keys.hash(ChessGame.fromFen(CASTLING_FEN));
+        List<long[]> entries = new ArrayList<>();
+        entries.add(new long[]{start, move("e2e4"), 30});
+        entries.add(new long[]{start, move("d2d4"), 10});
+        //a rook can't jump the knight, so this can only be another position's move under the same key
+        entries.add(new long[]{start, move("a1a3"), 1000});
+        entries.add(new long[]{castling, move("e1h1"), 5});
+        entries.add(new long[]{castling, move("e1a1"), 5});
+        for (int i = 0; i < 200; i++) {
+            entries.add(new long[]{random.nextLong(), move("g1f3"), 1});
+        }
+        entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        ByteBuffer bookBytes = ByteBuffer.allocate(entries.size() * PolyglotBook.ENTRY_BYTES);
+        for (long[] entry : entries) {
+            bookBytes.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]).putInt(0);
+        }
+        Path bookFile = directory.resolve("book.bin");
+        Files.write(bookFile, bookBytes.array());
+        book = PolyglotBook.open(bookFile);
+    }
+
+    //a UCI move in Polyglot's layout
+    private static long move(String uci) {
+        int from = (uci.charAt(1) - '1') * 8 + uci.charAt(0) - 'a';
+        int to = (uci.charAt(3) - '1') * 8 + uci.charAt(2) - 'a';
+        return to | from << 6;
+    }
+
+    @Test
+    void findsWeightedMoves() {
+        List<BookMove> moves = book.moves(new ChessGame());
+        assertEquals(List.of(new BookMove(ChessMove.fromUci("e2e4"), 30), new BookMove(ChessMove.fromUci("d2d4"), 10)),
+                moves);
+        assertEquals(ChessMove.fromUci("e2e4"), book.best(new ChessGame()));
+        assertEquals(205, book.size());
+    }
+
+    @Test
+    void castlingIsKingTakesRook() {
+        List<BookMove> moves = book.moves(ChessGame.fromFen(CASTLING_FEN));
+        assertEquals(2, moves.size());
+        assertEquals(ChessMove.fromUci("e1g1"), moves.get(0).move());
+        assertEquals(ChessMove.fromUci("e1c1"), moves.get(1).move());
+    }
+
+    @Test
+    void unknownPositionHasNoMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.fromUci("e2e4"));
+        assertTrue(book.moves(game).isEmpty());
+        assertNull(book.pick(game, new Random(1)));
+        assertNull(book.best(game));
+    }
+
+    @Test
+    void pickFollowsWeights() {
+        Random random = new Random(7);
+        int e4 = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (book.pick(new ChessGame(), random).equals(ChessMove.fromUci("e2e4"))) {
+                e4++;
+            }
+        }
+        assertTrue(e4 > 2800 && e4 < 3200, "e4 picked " + e4 + " times in 4000");
+    }
+
+    @Test
+    void standardKeysMatchThePublishedOnes() throws InvalidMoveException {
+        //the worked examples from the Polyglot book format description, played from the start
+        String[] moves = {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"};
+        long[] expected = {0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L, 0x22a48b5a8e47ff78L,
+                0x652a607ca3f242c1L, 0x00fdd303c946bdd9L};
+        ChessGame game = new ChessGame();
+        assertEquals(0x463b96181691fc9cL, keys.hash(game));
+        for (int i = 0; i < moves.length; i++) {
+            game.makeMove(ChessMove.fromUci(moves[i]));
+            assertEquals(expected[i], keys.hash(game), "after " + moves[i]);
+        }
+
+        ChessGame other = new ChessGame();
+        for (String move : new String[]{"a2a4", "b7b5", "h2h4", "b5b4", "c2c4"}) {
+            other.makeMove(ChessMove.fromUci(move));
+        }
+        assertEquals(0x3c8123ea7b067637L, keys.hash(other));
+        other.makeMove(ChessMove.fromUci("b4c3"));
+        other.makeMove(ChessMove.fromUci("a1a3"));
+        assertEquals(0x5c3f9b829b279560L, keys.hash(other));
+    }
+
+    @Test
+    void keyCountsEnPassantOnlyWhenCapturable() {
+        //no pawn can take on e3, so the square is no different from none
+        assertEquals(keys.hash(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                keys.hash(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+        assertNotEquals(keys.hash(ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3")),
+                keys.hash(ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")));
+        assertNotEquals(keys.hash(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1")),
+                keys.hash(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 0 1")));
+    }
+
+    @Test
+    void searchPlaysFromTheBook() {
+        Search search = new Search();
+        search.setBook(book);
+        SearchResult result = search.search(new ChessGame(), new SearchLimits(20, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertTrue(result.bestMove().equals(ChessMove.fromUci("e2e4")) || result.bestMove().equals(ChessMove.fromUci("d2d4")));
+        assertEquals(0, result.nodes());
+    }
+
+    @Test
+    void rejectsPartialEntries() throws IOException {
+        Path file = directory.resolve("partial.bin");
+        Files.write(file, new byte[PolyglotBook.ENTRY_BYTES + 3]);
+        assertThrows(IllegalArgumentException.class, () -> PolyglotBook.open(file, keys));
+        assertThrows(IllegalArgumentException.class, () -> new PolyglotKeys(new long[10]));
+    }
+}
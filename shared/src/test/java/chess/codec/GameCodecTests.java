@@ -0,0 +1,108 @@
+package chess.codec;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "4k3/8/8/8/8/8/8/4K2R b K - 17 63"
+    };
+
+    private static void move(ChessGame game, int startRow, int startCol, int endRow, int endCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null));
+    }
+
+    @Test
+    void positionRoundTrip() {
+        for (String fen : POSITIONS) {
+            ByteBuffer buffer = ByteBuffer.allocate(GameCodec.POSITION_BYTES);
+            GameCodec.writePosition(ChessGame.fromFen(fen), buffer);
+            assertEquals(GameCodec.POSITION_BYTES, buffer.position());
+            buffer.flip();
+            ChessGame decoded = GameCodec.readPosition(buffer);
+            assertEquals(fen, decoded.toFen());
+            assertEquals(ChessGame.fromFen(fen).positionKey(), decoded.positionKey());
+        }
+    }
+
+    @Test
+    void gameKeepsItsHistory() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(POSITIONS[1]);
+        move(game, 1, 5, 1, 7);
+        move(game, 8, 5, 8, 3);
+        move(game, 1, 6, 1, 5);
+        move(game, 8, 4, 8, 5);
+        move(game, 1, 5, 1, 6);
+        move(game, 8, 5, 8, 4);
+
+        byte[] bytes = GameCodec.encode(game);
+        assertEquals(GameCodec.POSITION_BYTES + 2 + 12, bytes.length);
+        ChessGame decoded = GameCodec.decode(bytes);
+        assertEquals(game, decoded);
+        assertEquals(game.toFen(), decoded.toFen());
+        assertEquals(6, decoded.historySize());
+        assertEquals(1, decoded.repetitions());
+        assertEquals(game.moveAt(0), decoded.moveAt(0));
+        for (int ply = 0; ply < 6; ply++) {
+            decoded.undo();
+        }
+        assertEquals(POSITIONS[1], decoded.toFen());
+    }
+
+    @Test
+    void readsAndWritesAtTheBufferPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 2, 5, 4, 5);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+        buffer.put((byte) 7);
+        GameCodec.write(game, buffer);
+        assertEquals(1 + GameCodec.size(game), buffer.position());
+
+        buffer.flip();
+        assertEquals(7, buffer.get());
+        assertEquals(game, GameCodec.read(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void rejectsBadBytes() {
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[10]));
+
+        byte[] badPiece = GameCodec.encode(new ChessGame());
+        badPiece[20] = (byte) 0xDD;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+
+        byte[] truncated = GameCodec.encode(new ChessGame());
+        truncated[GameCodec.POSITION_BYTES + 1] = 3;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+
+        byte[] noPiece = new byte[GameCodec.POSITION_BYTES + 4];
+        System.arraycopy(GameCodec.encode(new ChessGame()), 0, noPiece, 0, GameCodec.POSITION_BYTES);
+        noPiece[GameCodec.POSITION_BYTES + 1] = 1;
+        //e4 to e5: nothing stands on e4
+        int move = 28 | 36 << 6;
+        noPiece[GameCodec.POSITION_BYTES + 2] = (byte) (move >>> 8);
+        noPiece[GameCodec.POSITION_BYTES + 3] = (byte) move;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(noPiece));
+
+        byte[] illegal = noPiece.clone();
+        //a1 to a4: the rook can't jump its own pawn
+        int jump = 24 << 6;
+        illegal[GameCodec.POSITION_BYTES + 2] = (byte) (jump >>> 8);
+        illegal[GameCodec.POSITION_BYTES + 3] = (byte) jump;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(illegal));
+    }
+}
@@ -0,0 +1,61 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTests {
+
+    @Test
+    void findsMateWithSeveralThreads() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | | | | |k|
+                | | | | | | |p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R|P|P|P|
+                | | | | |R| |K| |
+                """));
+        ChessGame before = new ChessGame(game);
+        try (ParallelSearch search = new ParallelSearch(4, 4)) {
+            SearchResult result = search.search(game, SearchLimits.ofDepth(5));
+            assertEquals(new ChessMove(new ChessPosition(2, 5), new ChessPosition(8, 5), null), result.bestMove());
+            assertEquals(Search.MATE - 3, result.score());
+        }
+        assertEquals(before, game);
+    }
+
+    @Test
+    void respectsDeadline() {
+        try (ParallelSearch search = new ParallelSearch(3, 4)) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(new ChessGame(), SearchLimits.ofMillis(200));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertNotNull(result.bestMove());
+            assertTrue(millis < 2000, "took " + millis + " ms");
+        }
+    }
+
+    @Test
+    void stopEndsSearch() throws Exception {
+        try (ParallelSearch search = new ParallelSearch(2, 4)) {
+            CompletableFuture<SearchResult> running = CompletableFuture.supplyAsync(
+                    () -> search.search(new ChessGame(), SearchLimits.ofDepth(Search.MAX_PLY)));
+            Thread.sleep(200);
+            search.stop();
+            SearchResult result = running.get(5, TimeUnit.SECONDS);
+            assertNotNull(result.bestMove());
+            assertTrue(result.depth() >= 1);
+        }
+    }
+}
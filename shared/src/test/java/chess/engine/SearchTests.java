@@ -0,0 +1,63 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTests {
+
+    @Test
+    void findsBackRankMate() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.ofDepth(4));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(result.isMate());
+    }
+
+    @Test
+    void findsMateInTwo() {
+        //1. Re8+ Rxe8 2. Rxe8#
+        ChessGame game = ChessGame.fromFen("r6k/6pp/8/8/8/8/4RPPP/4R1K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.ofDepth(5));
+        assertEquals(new ChessMove(new ChessPosition(2, 5), new ChessPosition(8, 5), null), result.bestMove());
+        assertEquals(Search.MATE - 3, result.score());
+    }
+
+    @Test
+    void takesHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/2N5/7P/4K3 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.ofDepth(3));
+        assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 0);
+    }
+
+    @Test
+    void searchLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessGame before = new ChessGame(game);
+        new Search().search(game, SearchLimits.ofDepth(4));
+        assertEquals(before, game);
+        assertEquals(before.positionKey(), game.positionKey());
+        assertEquals(0, game.historySize());
+    }
+
+    @Test
+    void noMoveWhenCheckmated() {
+        ChessGame game = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.ofDepth(3));
+        assertNull(result.bestMove());
+        assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    void respectsNodeLimit() {
+        SearchResult result = new Search().search(new ChessGame(), SearchLimits.ofNodes(20_000));
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() < 25_000, "searched " + result.nodes() + " nodes");
+        assertTrue(result.depth() >= 1);
+    }
+}
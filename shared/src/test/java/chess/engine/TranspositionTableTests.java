@@ -0,0 +1,67 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTests {
+
+    @Test
+    void storesAndFindsEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(0x1234_5678_9ABC_DEF0L, 0x4321, TranspositionTable.LOWER, 7, -250);
+
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertNotEquals(0L, entry);
+        assertEquals(0x4321, TranspositionTable.move(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(-250, TranspositionTable.score(entry));
+
+        assertEquals(0L, table.probe(0x1234_5678_9ABC_DEF1L));
+        table.clear();
+        assertEquals(0L, table.probe(0x1234_5678_9ABC_DEF0L));
+    }
+
+    @Test
+    void deepEntriesSurviveShallowOnes() {
+        TranspositionTable table = new TranspositionTable(1);
+        //same bucket, different positions
+        long deep = 0x0000_0001_0000_0005L;
+        long shallow = 0x0000_0002_0000_0006L;
+        long newest = 0x0000_0003_0000_0007L;
+        table.store(deep, 1, TranspositionTable.EXACT, 10, 50);
+        table.store(shallow, 2, TranspositionTable.EXACT, 2, 60);
+        table.store(newest, 3, TranspositionTable.EXACT, 1, 70);
+
+        assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(0L, table.probe(shallow));
+        assertEquals(70, TranspositionTable.score(table.probe(newest)));
+
+        //a newer search can take the deep slot
+        table.newSearch();
+        table.store(shallow, 2, TranspositionTable.EXACT, 2, 60);
+        assertEquals(0L, table.probe(deep));
+        assertEquals(60, TranspositionTable.score(table.probe(shallow)));
+    }
+
+    @Test
+    void mateScoresAreStoredFromThePosition() {
+        int mateInThreeFromRoot = Search.MATE - 5;
+        int stored = TranspositionTable.scoreToTable(mateInThreeFromRoot, 2);
+        assertEquals(Search.MATE - 3, stored);
+        assertEquals(Search.MATE - 7, TranspositionTable.scoreFromTable(stored, 4));
+        assertEquals(-Search.MATE + 7, TranspositionTable.scoreFromTable(-stored, 4));
+        assertEquals(120, TranspositionTable.scoreToTable(120, 9));
+    }
+
+    @Test
+    void searchFillsTable() {
+        TranspositionTable table = new TranspositionTable(1);
+        SearchResult result = new Search(table).search(new chess.ChessGame(), SearchLimits.ofDepth(5));
+        assertTrue(table.hashfull() > 0);
+        long root = table.probe(new chess.ChessGame().positionKey());
+        assertEquals(5, TranspositionTable.depth(root));
+        assertEquals(result.score(), TranspositionTable.score(root));
+    }
+}
@@ -0,0 +1,144 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+
+    //Morphy against the Duke of Brunswick and Count Isouard, Paris 1858
+    private static final String OPERA_GAME = """
+            [Event "Casual game"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7
+            8. Nc3 c6 9. Bg5 b5 10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7
+            14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+
+            """;
+
+    private static ChessGame play(String... moves) {
+        ChessGame game = new ChessGame();
+        for (String san : moves) {
+            game.makeMoveUnchecked(ChessMove.fromSan(san, game));
+        }
+        return game;
+    }
+
+    @Test
+    void readsAGame() throws IOException {
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(OPERA_GAME.getBytes(StandardCharsets.UTF_8)))) {
+            PgnGame game = reader.next();
+            assertEquals("Paul Morphy", game.tags().get("White"));
+            assertEquals("1-0", game.result());
+            assertEquals(33, game.game().historySize());
+            assertEquals(ChessGame.GameStatus.CHECKMATE, game.game().evaluateStatus());
+            assertNull(reader.next());
+            assertEquals(1, reader.gamesRead());
+        }
+    }
+
+    @Test
+    void writesAGame() throws IOException {
+        ChessGame game;
+        try (PgnReader reader = new PgnReader(new StringReader(OPERA_GAME))) {
+            game = reader.next().game();
+        }
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Casual game");
+        tags.put("Site", "Paris FRA");
+        tags.put("Date", "1858.??.??");
+        tags.put("White", "Paul Morphy");
+        tags.put("Black", "Duke Karl / Count Isouard");
+
+        StringWriter text = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(game, tags);
+        }
+        assertEquals(OPERA_GAME, text.toString());
+    }
+
+    @Test
+    void skipsCommentaryAndAcceptsLooseMoveText() throws IOException {
+        String pgn = """
+                % a line for software to ignore
+                [Event "Notes"]
+                [Annotator "Someone \\"quoted\\""]
+
+                1.e4 {The king's pawn (best by test)} e5 $1 2.Nf3 (2.f4 exf4 {gambit} (2...d5)) Nc6!?
+                3.Bb5 ; the Spanish
+                3...a6 4.0-0 *
+                [Event "Next"]
+
+                1. d4 d5
+                """;
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            PgnGame first = reader.next();
+            assertEquals("Someone \"quoted\"", first.tags().get("Annotator"));
+            assertEquals("*", first.result());
+            assertEquals(play("e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "O-O"), first.game());
+            assertEquals(7, first.game().historySize());
+
+            PgnGame second = reader.next();
+            assertEquals("Next", second.tags().get("Event"));
+            assertEquals(play("d4", "d5"), second.game());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void readsAndWritesSetUpPositions() throws IOException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 b - - 0 40");
+        game.makeMoveUnchecked(ChessMove.fromSan("Kd7", game));
+        game.makeMoveUnchecked(ChessMove.fromSan("e4", game));
+
+        StringWriter text = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(game, Map.of());
+        }
+        assertTrue(text.toString().contains("[FEN \"4k3/8/8/8/8/8/4P3/4K3 b - - 0 40\"]"), text.toString());
+        assertTrue(text.toString().contains("40... Kd7 41. e4 *"), text.toString());
+
+        try (PgnReader reader = new PgnReader(new StringReader(text.toString()))) {
+            PgnGame read = reader.next();
+            assertEquals(game, read.game());
+            assertEquals(game.toFen(), read.game().toFen());
+        }
+    }
+
+    @Test
+    void badGameDoesNotStopTheStream() throws IOException {
+        String pgn = """
+                [Event "Broken"]
+
+                1. e4 e5 2. Ke3 Nc6 1-0
+
+                [Event "Fine"]
+
+                1. e4 1/2-1/2
+                """;
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+            assertTrue(e.getMessage().contains("move 3"), e.getMessage());
+            PgnGame next = reader.next();
+            assertEquals("Fine", next.tags().get("Event"));
+            assertEquals(1, next.game().historySize());
+            assertEquals(2, reader.gamesRead());
+        }
+    }
+}
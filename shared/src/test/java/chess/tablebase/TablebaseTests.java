@@ -0,0 +1,135 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path directory;
+    private static TablebaseGenerator generator;
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        generator = new TablebaseGenerator(2);
+        generator.write(Material.of("KQK"), directory);
+        generator.write(Material.of("KRK"), directory);
+        generator.write(Material.of("KPK"), directory);
+        tablebases = Tablebases.open(directory);
+    }
+
+    private static TablebaseResult probe(String fen) {
+        return tablebases.probe(ChessGame.fromFen(fen));
+    }
+
+    //the longest win in plies for the team to move
+    private static int longestWin(String material) {
+        int longest = 0;
+        for (byte entry : generator.generate(Material.of(material))) {
+            if (Dtm.isWin(entry & 0xFF)) {
+                longest = Math.max(longest, Dtm.plies(entry & 0xFF));
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    void namesMaterial() {
+        assertEquals("KBNK", Material.of("KNBK").name());
+        assertEquals("KKQ", Material.of("KQK").flipped().name());
+        assertEquals("KQK", Material.of(ChessGame.fromFen("k7/8/1K6/8/8/8/8/7Q w - - 0 1").getBoard()).name());
+        assertThrows(IllegalArgumentException.class, () -> Material.of("KQ"));
+        assertThrows(IllegalArgumentException.class, () -> Material.of("KQXK"));
+        assertThrows(IllegalArgumentException.class, () -> Material.of("KQRKR"));
+    }
+
+    @Test
+    void writesSmallerTablesToo() {
+        assertTrue(Files.exists(directory.resolve("KK" + TablebaseGenerator.EXTENSION)));
+        assertTrue(Files.exists(directory.resolve("KNK" + TablebaseGenerator.EXTENSION)));
+        assertTrue(tablebases.materials().contains(Material.of("KBK")));
+    }
+
+    @Test
+    void longestMates() {
+        //the known longest mates: 10 moves with a queen, 16 with a rook
+        assertEquals(19, longestWin("KQK"));
+        assertEquals(31, longestWin("KRK"));
+        assertEquals(0, longestWin("KBK"));
+    }
+
+    @Test
+    void probesMatesAndDraws() {
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1), probe("k7/8/1K6/8/8/8/8/6Q1 w - - 0 1"));
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 0), probe("k6Q/8/1K6/8/8/8/8/8 b - - 0 1"));
+        //the black king takes the queen
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.DRAW, 0), probe("k7/1Q6/8/8/8/8/8/7K b - - 0 1"));
+        assertEquals(TablebaseResult.Outcome.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1").outcome());
+        assertEquals(TablebaseResult.Outcome.DRAW, probe("k7/8/8/8/8/8/P7/K7 w - - 0 1").outcome());
+    }
+
+    @Test
+    void probesTheOtherWayRound() {
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1), probe("6q1/8/8/8/8/1k6/8/K7 b - - 0 1"));
+        assertEquals(probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"), probe("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"));
+    }
+
+    @Test
+    void leavesOutUncoveredPositions() {
+        assertNull(probe("r3k3/8/8/8/8/8/8/4K3 b q - 0 1"));
+        assertNull(probe("4k3/8/8/8/8/8/8/3QK2R w - - 0 1"));
+        assertNull(tablebases.bestMove(new ChessGame()));
+        //the black king is in check with white to move
+        assertNull(probe("k7/8/1K6/8/8/8/8/7Q w - - 0 1"));
+    }
+
+    @Test
+    void bestMovesMateInTheDistanceGiven() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        TablebaseResult start = tablebases.probe(game);
+        assertEquals(TablebaseResult.Outcome.WIN, start.outcome());
+        for (int ply = 0; ply < start.pliesToMate(); ply++) {
+            game.makeMoveUnchecked(tablebases.bestMove(game));
+        }
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    void bestMoveTakesIntoDrawnMaterialWithoutItsTable() throws IOException {
+        //a directory holding KQK alone, with no KK table for the capture of the queen
+        Path queenOnly = Files.createDirectory(directory.resolve("queen-only"));
+        String table = "KQK" + TablebaseGenerator.EXTENSION;
+        Files.copy(directory.resolve(table), queenOnly.resolve(table));
+        ChessMove capture = new ChessMove(new ChessPosition(8, 1), new ChessPosition(7, 2), null);
+        assertEquals(capture, Tablebases.open(queenOnly).bestMove(ChessGame.fromFen("k7/1Q6/8/8/8/8/8/7K b - - 0 1")));
+        assertEquals(capture, tablebases.bestMove(ChessGame.fromFen("k7/1Q6/8/8/8/8/8/7K b - - 0 1")));
+    }
+
+    @Test
+    void searchPlaysFromTheTablebases() {
+        Search search = new Search();
+        search.setTablebases(tablebases);
+        ChessGame game = ChessGame.fromFen("k7/8/1K6/8/8/8/8/6Q1 w - - 0 1");
+        SearchResult result = search.search(game, new SearchLimits(20, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(result.isMate());
+        assertEquals(0, result.nodes());
+        game.makeMoveUnchecked(result.bestMove());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus());
+    }
+}